@@ -30,6 +30,7 @@ public class ModbusPollerConfiguration {
     private String type;
     private int maxTries = 3;// backwards compatibility and tests
     private long cacheMillis = 50L;
+    private long updateUnchangedDataEveryMillis;
 
     /**
      * Gets refresh period in milliseconds
@@ -116,4 +117,22 @@ public class ModbusPollerConfiguration {
     public void setCacheMillis(long cacheMillis) {
         this.cacheMillis = cacheMillis;
     }
+
+    /**
+     * Gets interval for passing unchanged data to data things, in milliseconds.
+     *
+     * When positive, data things are passed polled data only if the registers or bits they read have changed, or
+     * if they have not been updated in this time. Zero or negative disables the change detection.
+     */
+    public long getUpdateUnchangedDataEveryMillis() {
+        return updateUnchangedDataEveryMillis;
+    }
+
+    /**
+     * Sets interval for passing unchanged data to data things, in milliseconds
+     *
+     */
+    public void setUpdateUnchangedDataEveryMillis(long updateUnchangedDataEveryMillis) {
+        this.updateUnchangedDataEveryMillis = updateUnchangedDataEveryMillis;
+    }
 }
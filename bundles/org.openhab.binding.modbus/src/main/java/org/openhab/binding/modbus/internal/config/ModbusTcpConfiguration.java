@@ -32,6 +32,7 @@ public class ModbusTcpConfiguration {
     private int connectMaxTries;
     private int reconnectAfterMillis;
     private int connectTimeoutMillis;
+    private int maxTransactionsInFlight;
     private boolean enableDiscovery;
 
     public @Nullable String getHost() {
@@ -98,6 +99,14 @@ public class ModbusTcpConfiguration {
         this.connectTimeoutMillis = connectTimeoutMillis;
     }
 
+    public int getMaxTransactionsInFlight() {
+        return maxTransactionsInFlight;
+    }
+
+    public void setMaxTransactionsInFlight(int maxTransactionsInFlight) {
+        this.maxTransactionsInFlight = maxTransactionsInFlight;
+    }
+
     public boolean isDiscoveryEnabled() {
         return enableDiscovery;
     }
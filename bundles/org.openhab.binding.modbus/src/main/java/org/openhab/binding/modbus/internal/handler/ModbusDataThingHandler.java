@@ -651,6 +651,55 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         });
     }
 
+    /**
+     * Check whether registers read by this thing differ between two poll results
+     *
+     * Used by the poller to skip processing of data that has not changed.
+     *
+     * @param previous registers of previous poll
+     * @param current registers of current poll
+     * @return true if the registers read by this thing have changed, or if the change cannot be determined
+     */
+    public boolean hasReadDataChanged(ModbusRegisterArray previous, ModbusRegisterArray current) {
+        ValueType readValueType = this.readValueType;
+        Optional<Integer> readIndex = this.readIndex;
+        if (!isReadEnabled || readValueType == null || !readIndex.isPresent()) {
+            return true;
+        }
+        int firstRegister = readIndex.get() - pollStart;
+        int lastRegister = firstRegister + Math.max(1, readValueType.getBits() / 16) - 1;
+        if (firstRegister < 0 || lastRegister >= previous.size() || lastRegister >= current.size()) {
+            return true;
+        }
+        for (int i = firstRegister; i <= lastRegister; i++) {
+            if (previous.getRegister(i).toUnsignedShort() != current.getRegister(i).toUnsignedShort()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether the bit read by this thing differs between two poll results
+     *
+     * Used by the poller to skip processing of data that has not changed.
+     *
+     * @param previous bits of previous poll
+     * @param current bits of current poll
+     * @return true if the bit read by this thing has changed, or if the change cannot be determined
+     */
+    public boolean hasReadDataChanged(BitArray previous, BitArray current) {
+        Optional<Integer> readIndex = this.readIndex;
+        if (!isReadEnabled || !readIndex.isPresent()) {
+            return true;
+        }
+        int index = readIndex.get() - pollStart;
+        if (index < 0 || index >= previous.size() || index >= current.size()) {
+            return true;
+        }
+        return previous.getBit(index) != current.getBit(index);
+    }
+
     @Override
     public synchronized void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
         if (hasConfigurationError()) {
@@ -14,8 +14,11 @@ package org.openhab.binding.modbus.internal.handler;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -76,8 +79,30 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
         private volatile @Nullable AtomicStampedKeyValue<ModbusReadRequestBlueprint, BitArray> lastCoils;
         private volatile @Nullable AtomicStampedKeyValue<ModbusReadRequestBlueprint, Exception> lastError;
 
+        // Previous poll result and the last update of each child, for skipping unchanged data
+        private volatile @Nullable ModbusRegisterArray previousRegisters;
+        private volatile @Nullable BitArray previousBits;
+        private final Map<ModbusReadCallback, Long> childLastUpdated = new ConcurrentHashMap<>();
+
         @Override
         public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+            onRegisters(request, registers, false);
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint request, BitArray coils) {
+            onBits(request, coils, false);
+        }
+
+        /**
+         * Process polled registers
+         *
+         * @param request the read request
+         * @param registers the polled registers
+         * @param updateAll whether to pass the data to all children, even if unchanged
+         */
+        private void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers,
+                boolean updateAll) {
             // Ignore all incoming data and errors if configuration is not correct
             if (hasConfigurationError() || disposed) {
                 return;
@@ -92,11 +117,26 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
             }
             logger.debug("Thing {} received registers {} for request {}", thing.getUID(), registers, request);
             resetCommunicationError();
-            childCallbacks.forEach(handler -> handler.onRegisters(request, registers));
+            ModbusRegisterArray previousRegisters = this.previousRegisters;
+            this.previousRegisters = registers;
+            long now = System.currentTimeMillis();
+            childCallbacks.forEach(handler -> {
+                if (shouldUpdateChild(handler, now, updateAll, () -> previousRegisters == null
+                        || !(handler instanceof ModbusDataThingHandler)
+                        || ((ModbusDataThingHandler) handler).hasReadDataChanged(previousRegisters, registers))) {
+                    handler.onRegisters(request, registers);
+                }
+            });
         }
 
-        @Override
-        public void onBits(ModbusReadRequestBlueprint request, BitArray coils) {
+        /**
+         * Process polled bits
+         *
+         * @param request the read request
+         * @param coils the polled bits
+         * @param updateAll whether to pass the data to all children, even if unchanged
+         */
+        private void onBits(ModbusReadRequestBlueprint request, BitArray coils, boolean updateAll) {
             // Ignore all incoming data and errors if configuration is not correct
             if (hasConfigurationError() || disposed) {
                 return;
@@ -111,7 +151,16 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
             }
             logger.debug("Thing {} received coils {} for request {}", thing.getUID(), coils, request);
             resetCommunicationError();
-            childCallbacks.forEach(handler -> handler.onBits(request, coils));
+            BitArray previousBits = this.previousBits;
+            this.previousBits = coils;
+            long now = System.currentTimeMillis();
+            childCallbacks.forEach(handler -> {
+                if (shouldUpdateChild(handler, now, updateAll, () -> previousBits == null
+                        || !(handler instanceof ModbusDataThingHandler)
+                        || ((ModbusDataThingHandler) handler).hasReadDataChanged(previousBits, coils))) {
+                    handler.onBits(request, coils);
+                }
+            });
         }
 
         @Override
@@ -129,11 +178,56 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
                 }
             }
             logger.debug("Thing {} received error {} for request {}", thing.getUID(), error, request);
+            // children go offline with the error, make sure they all receive the data once it is available again
+            resetChangeDetection();
             childCallbacks.forEach(handler -> handler.onError(request, error));
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
                     String.format("Error with read: %s: %s", error.getClass().getName(), error.getMessage()));
         }
 
+        /**
+         * Decide whether polled data is passed to a child, and keep track of the child updates
+         *
+         * @param child child to update
+         * @param now current time in milliseconds
+         * @param updateAll whether the data is passed to the child in any case
+         * @param changed tells whether the data read by the child has changed
+         * @return whether to pass the data to the child
+         */
+        private boolean shouldUpdateChild(ModbusReadCallback child, long now, boolean updateAll,
+                BooleanSupplier changed) {
+            long updateUnchangedDataEveryMillis = config.getUpdateUnchangedDataEveryMillis();
+            if (updateUnchangedDataEveryMillis <= 0) {
+                return true;
+            }
+            Long lastUpdated = childLastUpdated.get(child);
+            if (updateAll || lastUpdated == null || changed.getAsBoolean()
+                    || now - lastUpdated >= updateUnchangedDataEveryMillis) {
+                childLastUpdated.put(child, now);
+                return true;
+            }
+            logger.trace("Thing {} data unchanged, not updating child {}", thing.getUID(), child);
+            return false;
+        }
+
+        /**
+         * Forget previous poll result, next poll result is passed to all children
+         */
+        public void resetChangeDetection() {
+            previousRegisters = null;
+            previousBits = null;
+            childLastUpdated.clear();
+        }
+
+        /**
+         * Forget updates of single child, next poll result is passed to it
+         *
+         * @param child child to forget
+         */
+        public void forgetChild(ModbusReadCallback child) {
+            childLastUpdated.remove(child);
+        }
+
         private void resetCommunicationError() {
             ThingStatusInfo statusInfo = thing.getStatusInfo();
             if (ThingStatus.OFFLINE.equals(statusInfo.getStatus())
@@ -216,6 +310,32 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
             lastRegisters = null;
             lastCoils = null;
             lastError = null;
+            resetChangeDetection();
+        }
+    }
+
+    /**
+     * {@link ModbusReadCallback} of the one-time polls of {@link ModbusPollerThingHandlerImpl#refresh()}. Refreshed
+     * data is passed to all children, even if it has not changed.
+     *
+     * @author agent - Initial contribution
+     *
+     */
+    private class RefreshCallback implements ModbusReadCallback {
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+            callbackDelegator.onRegisters(request, registers, true);
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+            callbackDelegator.onBits(request, bits, true);
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+            callbackDelegator.onError(request, error);
         }
     }
 
@@ -252,11 +372,13 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
     private ModbusPollerConfiguration config;
     private long cacheMillis;
     private volatile @Nullable PollTask pollTask;
+    private volatile @Nullable PollTask refreshTask;
     private Supplier<ModbusManager> managerRef;
     private volatile boolean disposed;
     private volatile List<ModbusReadCallback> childCallbacks = new CopyOnWriteArrayList<>();
 
     private ReadCallbackDelegator callbackDelegator = new ReadCallbackDelegator();
+    private final RefreshCallback refreshCallback = new RefreshCallback();
 
     public ModbusPollerThingHandlerImpl(Bridge bridge, Supplier<ModbusManager> managerRef) {
         super(bridge);
@@ -341,6 +463,7 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
         PollTask task = (@NonNull PollTask) pollTask;
         managerRef.get().unregisterRegularPoll(task);
         pollTask = null;
+        refreshTask = null;
         updateStatus(ThingStatus.OFFLINE);
     }
 
@@ -378,6 +501,7 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
         @NonNull
         PollTask task = new BasicPollTaskImpl(endpoint, request, callbackDelegator);
         pollTask = task;
+        refreshTask = new BasicPollTaskImpl(endpoint, request, refreshCallback);
 
         if (config.getRefresh() <= 0L) {
             logger.debug("Not registering polling with ModbusManager since refresh disabled");
@@ -414,6 +538,7 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
     public void childHandlerDisposed(ThingHandler childHandler, Thing childThing) {
         if (childHandler instanceof ModbusReadCallback) {
             this.childCallbacks.remove(childHandler);
+            this.callbackDelegator.forgetChild((ModbusReadCallback) childHandler);
         }
     }
 
@@ -434,8 +559,8 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
      */
     @Override
     public void refresh() {
-        PollTask pollTask = this.pollTask;
-        if (pollTask == null) {
+        PollTask refreshTask = this.refreshTask;
+        if (refreshTask == null) {
             return;
         }
 
@@ -450,7 +575,8 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
             // cache expired, poll new data
             logger.debug("Poller {} received refresh() but the cache is not applicable. Polling new data",
                     getThing().getUID());
-            managerRef.get().submitOneTimePoll(pollTask);
+            // refreshed data is passed to all children, even if unchanged
+            managerRef.get().submitOneTimePoll(refreshTask);
         }
     }
 }
@@ -37,6 +37,10 @@ public class ChannelConfig {
      * Instead a postCommand() call is performed.
      */
     public boolean postCommand = false;
+    /**
+     * If true, a received value that does not change the channel state does not update the state.
+     */
+    public boolean skipUnchangedState = false;
     public @Nullable Integer qos;
     public boolean retained = false;
     /** If true, the state topic will not update a state, but trigger a channel instead. */
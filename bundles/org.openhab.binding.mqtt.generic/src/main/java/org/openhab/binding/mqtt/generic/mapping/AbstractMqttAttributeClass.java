@@ -17,6 +17,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
@@ -25,6 +26,7 @@ import java.util.stream.Collectors;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.binding.mqtt.generic.tools.MqttTopicDispatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -98,11 +100,47 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTTtopic.FieldChanged {
+    /**
+     * The subscribed fields of each attribute class. Reflection is only performed once per class and not for each
+     * device, node and property.
+     */
+    private static final ClassValue<List<FieldMetadata>> FIELD_METADATA = new ClassValue<List<FieldMetadata>>() {
+        @Override
+        protected List<FieldMetadata> computeValue(@Nullable Class<?> clazz) {
+            if (clazz == null) {
+                return Collections.emptyList();
+            }
+            TopicPrefix topicUsesPrefix = clazz.getAnnotation(TopicPrefix.class);
+            String prefix = (topicUsesPrefix != null) ? topicUsesPrefix.value() : "";
+            return Collections.unmodifiableList(getAllFields(clazz).stream()
+                    .filter(AbstractMqttAttributeClass::filterField).map(field -> new FieldMetadata(field, prefix))
+                    .collect(Collectors.toList()));
+        }
+    };
+
+    /**
+     * Subscription relevant information of a single attribute field
+     */
+    protected static class FieldMetadata {
+        public final Field field;
+        public final boolean mandatory;
+        /** The topic of the field, relative to the base topic */
+        public final String subtopic;
+
+        @SuppressWarnings("null")
+        FieldMetadata(Field field, String classPrefix) {
+            this.field = field;
+            this.mandatory = field.getAnnotation(MandatoryField.class) != null;
+            TopicPrefix topicUsesPrefix = field.getAnnotation(TopicPrefix.class);
+            String localPrefix = (topicUsesPrefix != null) ? topicUsesPrefix.value() : classPrefix;
+            this.subtopic = localPrefix + field.getName();
+        }
+    }
+
     private final Logger logger = LoggerFactory.getLogger(AbstractMqttAttributeClass.class);
     protected transient List<SubscribeFieldToMQTTtopic> subscriptions = new ArrayList<>();
     public transient WeakReference<@Nullable MqttBrokerConnection> connection = new WeakReference<>(null);
     protected transient WeakReference<@Nullable ScheduledExecutorService> scheduler = new WeakReference<>(null);
-    private final String prefix;
     private transient String basetopic = "";
     protected transient AttributeChanged attributeChangedListener = (b, c, d, e, f) -> {
     };
@@ -125,12 +163,6 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
                 ScheduledExecutorService scheduler, boolean allMandatoryFieldsReceived);
     }
 
-    @SuppressWarnings("null")
-    protected AbstractMqttAttributeClass() {
-        TopicPrefix topicUsesPrefix = getFieldsOf().getClass().getAnnotation(TopicPrefix.class);
-        prefix = (topicUsesPrefix != null) ? topicUsesPrefix.value() : "";
-    }
-
     /**
      * Unsubscribe from all topics of the managed object.
      *
@@ -145,7 +177,8 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
             return CompletableFuture.completedFuture(null);
         }
 
-        final CompletableFuture<?>[] futures = subscriptions.stream().map(m -> connection.unsubscribe(m.topic, m))
+        final MqttTopicDispatcher dispatcher = MqttTopicDispatcher.of(connection);
+        final CompletableFuture<?>[] futures = subscriptions.stream().map(m -> dispatcher.unsubscribe(m.topic, m))
                 .toArray(CompletableFuture[]::new);
         subscriptions.clear();
         return CompletableFuture.allOf(futures);
@@ -188,8 +221,8 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
             };
         }
 
-        subscriptions = getAllFields(getFieldsOf().getClass()).stream().filter(AbstractMqttAttributeClass::filterField)
-                .map(this::mapFieldToSubscriber).collect(Collectors.toList());
+        subscriptions = getFieldMetadata(getFieldsOf().getClass()).stream().map(this::mapFieldToSubscriber)
+                .collect(Collectors.toList());
 
         final CompletableFuture<?>[] futures = subscriptions.stream()
                 .map(m -> m.subscribeAndReceive(connection, timeout)).toArray(CompletableFuture[]::new);
@@ -222,30 +255,29 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
                 && !Modifier.isStatic(field.getModifiers());
     }
 
+    /**
+     * Return the subscribed fields of the given class as well as all super classes. The result is cached per class.
+     *
+     * @param clazz The class
+     * @return An unmodifiable list of field metadata
+     */
+    protected static List<FieldMetadata> getFieldMetadata(Class<?> clazz) {
+        return FIELD_METADATA.get(clazz);
+    }
+
     /**
      * Maps the given field to a newly created {@link SubscribeFieldToMQTTtopic}.
      * Requires the scheduler of this class to be set.
      *
-     * @param field A field
+     * @param metadata The field metadata
      * @return A newly created {@link SubscribeFieldToMQTTtopic}.
      */
-    protected SubscribeFieldToMQTTtopic mapFieldToSubscriber(Field field) {
+    protected SubscribeFieldToMQTTtopic mapFieldToSubscriber(FieldMetadata metadata) {
         final ScheduledExecutorService scheduler = this.scheduler.get();
         if (scheduler == null) {
             throw new IllegalStateException("No scheduler set!");
         }
-
-        MandatoryField mandatoryField = field.getAnnotation(MandatoryField.class);
-        @SuppressWarnings("null")
-        boolean mandatory = mandatoryField != null;
-
-        TopicPrefix topicUsesPrefix = field.getAnnotation(TopicPrefix.class);
-        @SuppressWarnings("null")
-        String localPrefix = (topicUsesPrefix != null) ? topicUsesPrefix.value() : prefix;
-
-        final String topic = basetopic + "/" + localPrefix + field.getName();
-
-        return createSubscriber(scheduler, field, topic, mandatory);
+        return createSubscriber(scheduler, metadata.field, basetopic + "/" + metadata.subtopic, metadata.mandatory);
     }
 
     /**
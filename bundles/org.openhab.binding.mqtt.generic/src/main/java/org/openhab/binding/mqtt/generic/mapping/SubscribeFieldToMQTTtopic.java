@@ -25,6 +25,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.eclipse.smarthome.io.transport.mqtt.MqttException;
 import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.openhab.binding.mqtt.generic.tools.MqttTopicDispatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +47,8 @@ public class SubscribeFieldToMQTTtopic implements MqttMessageSubscriber {
     private final ScheduledExecutorService scheduler;
     private @Nullable ScheduledFuture<?> scheduledFuture;
     private final boolean mandatory;
+    private final @Nullable MQTTvalueTransform transform;
+    private final Class<?> type;
     private boolean receivedValue = false;
 
     /**
@@ -72,6 +75,9 @@ public class SubscribeFieldToMQTTtopic implements MqttMessageSubscriber {
         this.changeConsumer = fieldChangeListener;
         this.topic = topic;
         this.mandatory = mandatory;
+        // Resolve the annotation and type once and not for every received message
+        this.transform = field.getAnnotation(MQTTvalueTransform.class);
+        this.type = field.getType();
     }
 
     static Object numberConvert(Object value, Class<?> type) throws IllegalArgumentException, NumberFormatException {
@@ -142,19 +148,18 @@ public class SubscribeFieldToMQTTtopic implements MqttMessageSubscriber {
         String valueStr = new String(payload, StandardCharsets.UTF_8);
 
         // Check if there is a manipulation annotation attached to the field
-        final MQTTvalueTransform transform = field.getAnnotation(MQTTvalueTransform.class);
+        final MQTTvalueTransform transform = this.transform;
         Object value;
         if (transform != null) {
             // Add a prefix/suffix to the value
             valueStr = transform.prefix() + valueStr + transform.suffix();
             // Split the value if the field is an array. Convert numbers/enums if necessary.
-            value = field.getType().isArray() ? valueStr.split(transform.splitCharacter())
-                    : numberConvert(valueStr, field.getType());
-        } else if (field.getType().isArray()) {
+            value = type.isArray() ? valueStr.split(transform.splitCharacter()) : numberConvert(valueStr, type);
+        } else if (type.isArray()) {
             throw new IllegalArgumentException("No split character defined!");
         } else {
             // Convert numbers/enums if necessary
-            value = numberConvert(valueStr, field.getType());
+            value = numberConvert(valueStr, type);
         }
         receivedValue = true;
         changeConsumer.fieldChanged(field, value);
@@ -180,7 +185,7 @@ public class SubscribeFieldToMQTTtopic implements MqttMessageSubscriber {
      * @throws MqttException If an MQTT IO exception happens this exception is thrown.
      */
     public CompletableFuture<@Nullable Void> subscribeAndReceive(MqttBrokerConnection connection, int timeout) {
-        connection.subscribe(topic, this).exceptionally(e -> {
+        MqttTopicDispatcher.of(connection).subscribe(topic, this).exceptionally(e -> {
             logger.debug("Failed to subscribe to topic {}", topic, e);
             final ScheduledFuture<?> scheduledFuture = this.scheduledFuture;
             if (scheduledFuture != null) { // Cancel timeout
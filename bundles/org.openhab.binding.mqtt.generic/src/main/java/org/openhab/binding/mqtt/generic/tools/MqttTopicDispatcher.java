@@ -0,0 +1,285 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionState;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Routes MQTT messages of whole topic trees to local subscribers, to avoid one broker subscription per topic.
+ * </p>
+ *
+ * <p>
+ * A root topic, for example a Homie device topic "homie/mydevice", is registered with {@link #addRoot(String)}.
+ * This performs a single wildcard subscription "homie/mydevice/#" on the broker connection. All following
+ * {@link #subscribe(String, MqttMessageSubscriber)} calls for topics below a root topic are only stored in a
+ * {@link TopicTrie}, which dispatches the received messages. Subscriptions for all other topics are passed to the
+ * broker connection as is.
+ * </p>
+ *
+ * <p>
+ * The broker only sends retained messages when a subscription is performed. The dispatcher therefore keeps the last
+ * message of each topic below a root topic and replays it to new local subscribers.
+ * </p>
+ *
+ * <p>
+ * If the wildcard subscription fails, the root topic is removed and the local subscribers of its topics are
+ * subscribed on the broker connection individually, before the futures returned to the callers complete. A
+ * disconnected broker connection performs the wildcard subscription once connected, so the root topic is kept.
+ * Local subscribers which are still subscribed when the root topic is removed are subscribed on the broker
+ * connection individually as well.
+ * </p>
+ *
+ * There is one dispatcher per broker connection, use {@link #of(MqttBrokerConnection)}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MqttTopicDispatcher implements MqttMessageSubscriber {
+    private static final Map<MqttBrokerConnection, MqttTopicDispatcher> DISPATCHERS = new WeakHashMap<>();
+
+    private final Logger logger = LoggerFactory.getLogger(MqttTopicDispatcher.class);
+    private final WeakReference<MqttBrokerConnection> connection;
+    private final TopicTrie<MqttMessageSubscriber> subscribers = new TopicTrie<>();
+    private final Map<String, Root> roots = new HashMap<>();
+    private final Map<String, byte[]> lastMessages = new ConcurrentHashMap<>();
+
+    private static class Root {
+        final CompletableFuture<Boolean> subscribed = new CompletableFuture<>();
+        final Set<Entry<String, MqttMessageSubscriber>> subscriptions = new HashSet<>();
+        final Map<Entry<String, MqttMessageSubscriber>, CompletableFuture<Boolean>> fallbacks = //
+                new ConcurrentHashMap<>();
+        int references = 1;
+    }
+
+    /**
+     * Returns the dispatcher of the given connection.
+     *
+     * @param connection A broker connection
+     */
+    public static MqttTopicDispatcher of(MqttBrokerConnection connection) {
+        synchronized (DISPATCHERS) {
+            return DISPATCHERS.computeIfAbsent(connection, MqttTopicDispatcher::new);
+        }
+    }
+
+    protected MqttTopicDispatcher(MqttBrokerConnection connection) {
+        this.connection = new WeakReference<>(connection);
+    }
+
+    /**
+     * Subscribes to all topics below the given root topic and dispatches them to local subscribers from now on.
+     * Root topics are reference counted, call {@link #removeRoot(String)} once for each call of this method.
+     *
+     * @param rootTopic A topic without wildcards, for example "homie/mydevice"
+     * @return A future that completes with true if the wildcard subscription succeeded.
+     */
+    public synchronized CompletableFuture<Boolean> addRoot(String rootTopic) {
+        Root root = roots.get(rootTopic);
+        if (root != null) {
+            root.references++;
+            return root.subscribed;
+        }
+        final MqttBrokerConnection connection = this.connection.get();
+        if (connection == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        final Root newRoot = new Root();
+        roots.put(rootTopic, newRoot);
+        connection.subscribe(rootTopic + "/#", this).whenComplete((result, e) -> {
+            if (e == null && (Boolean.TRUE.equals(result)
+                    || connection.connectionState() != MqttConnectionState.CONNECTED)) {
+                // If disconnected, the connection performs the subscription once connected
+                newRoot.subscribed.complete(result);
+                return;
+            }
+            logger.debug("Failed to subscribe to root topic {}", rootTopic, e);
+            fallBack(connection, rootTopic, newRoot);
+            if (e != null) {
+                newRoot.subscribed.completeExceptionally(e);
+            } else {
+                newRoot.subscribed.complete(false);
+            }
+        });
+        return newRoot.subscribed;
+    }
+
+    /**
+     * Removes a root topic whose wildcard subscription failed, and subscribes the local subscribers of its topics on
+     * the broker connection instead.
+     */
+    private synchronized void fallBack(MqttBrokerConnection connection, String rootTopic, Root root) {
+        if (roots.get(rootTopic) == root) {
+            roots.remove(rootTopic);
+            lastMessages.keySet().removeIf(topic -> topic.startsWith(rootTopic + "/"));
+        }
+        // The connection keeps failed subscriptions and would perform them on the next connect
+        connection.unsubscribe(rootTopic + "/#", this);
+        moveSubscriptions(connection, root);
+    }
+
+    /**
+     * Subscribes the local subscribers of the topics of a removed root topic on the broker connection.
+     */
+    private synchronized void moveSubscriptions(MqttBrokerConnection connection, Root root) {
+        for (Entry<String, MqttMessageSubscriber> subscription : root.subscriptions) {
+            subscribers.remove(subscription.getKey(), subscription.getValue());
+            root.fallbacks.put(subscription, connection.subscribe(subscription.getKey(), subscription.getValue()));
+        }
+        root.subscriptions.clear();
+    }
+
+    /**
+     * Removes a root topic added by {@link #addRoot(String)}. Local subscribers which are still subscribed to topics
+     * below the root topic, for example channels of other things, are subscribed on the broker connection instead.
+     *
+     * @param rootTopic A topic without wildcards, for example "homie/mydevice"
+     * @return A future that completes with true if the wildcard subscription was removed.
+     */
+    public synchronized CompletableFuture<Boolean> removeRoot(String rootTopic) {
+        Root root = roots.get(rootTopic);
+        if (root == null || --root.references > 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+        roots.remove(rootTopic);
+        lastMessages.keySet().removeIf(topic -> topic.startsWith(rootTopic + "/"));
+        final MqttBrokerConnection connection = this.connection.get();
+        if (connection == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        // Subscribe the remaining local subscribers first, so that they do not miss messages
+        moveSubscriptions(connection, root);
+        return connection.unsubscribe(rootTopic + "/#", this);
+    }
+
+    /**
+     * Subscribes to the given topic. The topic may contain wildcards.
+     *
+     * @param topic The topic
+     * @param subscriber The subscriber
+     * @return A future that completes with true if the subscription succeeded.
+     */
+    public CompletableFuture<Boolean> subscribe(String topic, MqttMessageSubscriber subscriber) {
+        final Entry<String, MqttMessageSubscriber> subscription = new SimpleImmutableEntry<>(topic, subscriber);
+        final Root root;
+        synchronized (this) {
+            root = findRoot(topic);
+            if (root != null) {
+                subscribers.add(topic, subscriber);
+                root.subscriptions.add(subscription);
+            }
+        }
+        if (root == null) {
+            final MqttBrokerConnection connection = this.connection.get();
+            if (connection == null) {
+                return CompletableFuture.completedFuture(false);
+            }
+            return connection.subscribe(topic, subscriber);
+        }
+        return root.subscribed.handle((result, e) -> {
+            // The root topic has been removed, if its wildcard subscription failed
+            final CompletableFuture<Boolean> fallback = root.fallbacks.get(subscription);
+            if (fallback != null) {
+                return fallback;
+            }
+            replay(topic, subscriber);
+            return CompletableFuture.completedFuture(e == null && Boolean.TRUE.equals(result));
+        }).thenCompose(future -> future);
+    }
+
+    /**
+     * Unsubscribes from the given topic.
+     *
+     * @param topic The topic
+     * @param subscriber The subscriber
+     * @return A future that completes with true if the subscription was removed.
+     */
+    public CompletableFuture<Boolean> unsubscribe(String topic, MqttMessageSubscriber subscriber) {
+        synchronized (this) {
+            if (subscribers.remove(topic, subscriber)) {
+                final Root root = findRoot(topic);
+                if (root != null) {
+                    root.subscriptions.remove(new SimpleImmutableEntry<>(topic, subscriber));
+                }
+                return CompletableFuture.completedFuture(true);
+            }
+        }
+        final MqttBrokerConnection connection = this.connection.get();
+        if (connection == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return connection.unsubscribe(topic, subscriber);
+    }
+
+    @Override
+    public void processMessage(String topic, byte[] payload) {
+        if (payload.length > 0) {
+            lastMessages.put(topic, payload);
+        } else {
+            lastMessages.remove(topic);
+        }
+        subscribers.forEachMatch(topic, subscriber -> subscriber.processMessage(topic, payload));
+    }
+
+    /**
+     * Returns the root of the given topic, checking each parent level of the topic.
+     */
+    private synchronized @Nullable Root findRoot(String topic) {
+        if (roots.isEmpty()) {
+            return null;
+        }
+        for (int index = topic.indexOf('/'); index > 0; index = topic.indexOf('/', index + 1)) {
+            String parent = topic.substring(0, index);
+            if (TopicTrie.hasWildcard(parent)) {
+                return null;
+            }
+            Root root = roots.get(parent);
+            if (root != null) {
+                return root;
+            }
+        }
+        return null;
+    }
+
+    private void replay(String topic, MqttMessageSubscriber subscriber) {
+        if (!TopicTrie.hasWildcard(topic)) {
+            byte[] payload = lastMessages.get(topic);
+            if (payload != null) {
+                subscriber.processMessage(topic, payload);
+            }
+            return;
+        }
+        lastMessages.forEach((lastTopic, payload) -> {
+            if (TopicTrie.matches(topic, lastTopic)) {
+                subscriber.processMessage(lastTopic, payload);
+            }
+        });
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * <p>
+ * A trie of MQTT topic filters, one level per trie node. Filters may contain the MQTT
+ * wildcards <code>+</code> (single level) and <code>#</code> (all remaining levels).
+ * </p>
+ *
+ * <p>
+ * Finding the values of all filters matching a topic takes time proportional to the topic depth,
+ * independent of the number of filters in the trie. As specified by MQTT, topics starting with
+ * <code>$</code> are not matched by a wildcard on the first level.
+ * </p>
+ *
+ * <p>
+ * Matching is lock free and can be done concurrently to adding and removing filters.
+ * </p>
+ *
+ * @author agent - Initial contribution
+ *
+ * @param <T> Any object
+ */
+@NonNullByDefault
+public class TopicTrie<T> {
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private static class Node<T> {
+        final Map<String, Node<T>> children = new ConcurrentHashMap<>();
+        final Set<T> values = new CopyOnWriteArraySet<>();
+
+        boolean isEmpty() {
+            return children.isEmpty() && values.isEmpty();
+        }
+    }
+
+    private final Node<T> root = new Node<>();
+
+    /**
+     * Adds a value for the given topic filter.
+     *
+     * @param filter A topic filter, may contain wildcards
+     * @param value The value. Adding the same value for the same filter twice has no effect.
+     */
+    public synchronized void add(String filter, T value) {
+        Node<T> node = root;
+        for (String level : split(filter)) {
+            node = node.children.computeIfAbsent(level, l -> new Node<>());
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * Removes a value of the given topic filter.
+     *
+     * @param filter A topic filter, may contain wildcards
+     * @param value The value
+     * @return Returns true if the value was found and removed.
+     */
+    public synchronized boolean remove(String filter, T value) {
+        return remove(root, split(filter), 0, value);
+    }
+
+    private boolean remove(Node<T> node, String[] levels, int index, T value) {
+        if (index == levels.length) {
+            return node.values.remove(value);
+        }
+        Node<T> child = node.children.get(levels[index]);
+        if (child == null || !remove(child, levels, index + 1, value)) {
+            return false;
+        }
+        if (child.isEmpty()) {
+            node.children.remove(levels[index]);
+        }
+        return true;
+    }
+
+    /**
+     * Calls the consumer for each value of each filter matching the given topic.
+     *
+     * @param topic A topic without wildcards
+     * @param consumer The consumer
+     */
+    public void forEachMatch(String topic, Consumer<T> consumer) {
+        String[] levels = split(topic);
+        match(root, levels, 0, !levels[0].startsWith("$"), consumer);
+    }
+
+    private void match(Node<T> node, String[] levels, int index, boolean wildcardsAllowed, Consumer<T> consumer) {
+        if (wildcardsAllowed) {
+            // "a/#" also matches the parent level "a"
+            Node<T> multiLevel = node.children.get(MULTI_LEVEL_WILDCARD);
+            if (multiLevel != null) {
+                multiLevel.values.forEach(consumer);
+            }
+        }
+        if (index == levels.length) {
+            node.values.forEach(consumer);
+            return;
+        }
+        Node<T> child = node.children.get(levels[index]);
+        if (child != null) {
+            match(child, levels, index + 1, true, consumer);
+        }
+        if (wildcardsAllowed) {
+            Node<T> singleLevel = node.children.get(SINGLE_LEVEL_WILDCARD);
+            if (singleLevel != null) {
+                match(singleLevel, levels, index + 1, true, consumer);
+            }
+        }
+    }
+
+    /**
+     * Returns true if no filter is stored.
+     */
+    public boolean isEmpty() {
+        return root.isEmpty();
+    }
+
+    /**
+     * Returns true if the given topic filter contains a wildcard.
+     *
+     * @param filter A topic filter
+     */
+    public static boolean hasWildcard(String filter) {
+        return filter.indexOf('+') >= 0 || filter.indexOf('#') >= 0;
+    }
+
+    /**
+     * Returns true if the topic filter matches the given topic.
+     *
+     * @param filter A topic filter, may contain wildcards
+     * @param topic A topic without wildcards
+     */
+    public static boolean matches(String filter, String topic) {
+        String[] filterLevels = split(filter);
+        String[] topicLevels = split(topic);
+        boolean wildcardsAllowed = !topicLevels[0].startsWith("$");
+        for (int i = 0; i < filterLevels.length; i++) {
+            if (MULTI_LEVEL_WILDCARD.equals(filterLevels[i])) {
+                return i > 0 || wildcardsAllowed;
+            }
+            if (i >= topicLevels.length) {
+                return false;
+            }
+            if (SINGLE_LEVEL_WILDCARD.equals(filterLevels[i])) {
+                if (i == 0 && !wildcardsAllowed) {
+                    return false;
+                }
+            } else if (!filterLevels[i].equals(topicLevels[i])) {
+                return false;
+            }
+        }
+        return filterLevels.length == topicLevels.length;
+    }
+
+    private static String[] split(String topic) {
+        // keep empty levels, "a//b" and "a/" are valid topics
+        return topic.split("/", -1);
+    }
+}
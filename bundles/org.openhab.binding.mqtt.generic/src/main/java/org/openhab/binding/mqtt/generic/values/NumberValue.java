@@ -87,6 +87,35 @@ public class NumberValue extends Value {
         return state.format(formatPattern);
     }
 
+    /**
+     * Plain decimal numbers are parsed directly, avoiding the reflective
+     * {@link org.eclipse.smarthome.core.types.TypeParser}.
+     */
+    @Override
+    public @Nullable Command parseCommand(String value) {
+        if (isPlainNumber(value)) {
+            try {
+                return new DecimalType(new BigDecimal(value));
+            } catch (NumberFormatException e) {
+                // fall through, e.g. for a single sign character
+            }
+        }
+        return super.parseCommand(value);
+    }
+
+    private static boolean isPlainNumber(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public void update(Command command) throws IllegalArgumentException {
         DecimalType oldvalue = (state == UnDefType.UNDEF) ? new DecimalType() : (DecimalType) state;
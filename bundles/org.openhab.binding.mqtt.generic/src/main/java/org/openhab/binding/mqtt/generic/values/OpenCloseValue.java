@@ -53,6 +53,17 @@ public class OpenCloseValue extends Value {
         this.closeString = closeValue == null ? OpenClosedType.CLOSED.name() : closeValue;
     }
 
+    @Override
+    public Command parseCommand(String value) {
+        // Same result as the TypeParser: the exact OpenClosedType names, and any other text as a StringType
+        if (OpenClosedType.OPEN.name().equals(value)) {
+            return OpenClosedType.OPEN;
+        } else if (OpenClosedType.CLOSED.name().equals(value)) {
+            return OpenClosedType.CLOSED;
+        }
+        return new StringType(value);
+    }
+
     @Override
     public void update(Command command) throws IllegalArgumentException {
         if (command instanceof OpenClosedType) {
@@ -56,6 +56,11 @@ public class TextValue extends Value {
         this.states = null;
     }
 
+    @Override
+    public Command parseCommand(String value) {
+        return new StringType(value);
+    }
+
     @Override
     public void update(Command command) throws IllegalArgumentException {
         final Set<String> states = this.states;
@@ -26,6 +26,7 @@ import org.eclipse.smarthome.core.library.types.RawType;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.StateDescriptionFragmentBuilder;
+import org.eclipse.smarthome.core.types.TypeParser;
 import org.eclipse.smarthome.core.types.UnDefType;
 
 /**
@@ -116,6 +117,21 @@ public abstract class Value {
         state = UnDefType.UNDEF;
     }
 
+    /**
+     * Parses an incoming MQTT value into a command that can be passed to {@link #update(Command)}.
+     * <p>
+     * The default implementation tries the {@link #getSupportedCommandTypes()} in order with the
+     * {@link TypeParser}. Subclasses may override this with a faster implementation that yields the
+     * same result for their common payloads.
+     * </p>
+     *
+     * @param value The (transformed) MQTT value
+     * @return A command or null if the value could not be parsed
+     */
+    public @Nullable Command parseCommand(String value) {
+        return TypeParser.parseCommand(commandTypes, value);
+    }
+
     /**
      * Updates the internal value state with the given command.
      *
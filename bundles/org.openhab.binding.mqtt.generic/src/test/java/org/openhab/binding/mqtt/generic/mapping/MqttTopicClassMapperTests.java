@@ -23,6 +23,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.Stream;
@@ -134,6 +135,19 @@ public class MqttTopicClassMapperTests {
         return s;
     }
 
+    @Test
+    public void fieldMetadataIsCachedPerClass() {
+        List<AbstractMqttAttributeClass.FieldMetadata> metadata = AbstractMqttAttributeClass
+                .getFieldMetadata(Attributes.class);
+        assertSame(metadata, AbstractMqttAttributeClass.getFieldMetadata(Attributes.class));
+        assertThat(metadata.size(), is(10));
+
+        AbstractMqttAttributeClass.FieldMetadata intField = metadata.stream()
+                .filter(m -> m.field.getName().equals("Int")).findFirst().get();
+        assertThat(intField.subtopic, is("aInt"));
+        assertThat(intField.mandatory, is(false));
+    }
+
     @Test
     public void subscribeToCorrectFields() {
         Attributes attributes = spy(new Attributes());
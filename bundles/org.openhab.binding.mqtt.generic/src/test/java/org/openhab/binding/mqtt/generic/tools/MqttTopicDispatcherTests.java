@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionState;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests cases for {@link MqttTopicDispatcher}.
+ *
+ * @author agent - Initial contribution
+ */
+public class MqttTopicDispatcherTests {
+    @Mock
+    MqttBrokerConnection connection;
+
+    @Mock
+    MqttMessageSubscriber subscriber;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).subscribe(any(), any());
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).unsubscribe(any(), any());
+        doReturn(MqttConnectionState.CONNECTED).when(connection).connectionState();
+    }
+
+    @Test
+    public void sameDispatcherPerConnection() {
+        assertSame(MqttTopicDispatcher.of(connection), MqttTopicDispatcher.of(connection));
+    }
+
+    @Test
+    public void topicsOutsideOfRootAreSubscribedDirectly() {
+        MqttTopicDispatcher dispatcher = MqttTopicDispatcher.of(connection);
+        dispatcher.addRoot("homie/device");
+
+        dispatcher.subscribe("homie/other/$name", subscriber);
+        dispatcher.subscribe("homie/+/$name", subscriber);
+        dispatcher.unsubscribe("homie/other/$name", subscriber);
+
+        verify(connection).subscribe(eq("homie/other/$name"), eq(subscriber));
+        verify(connection).subscribe(eq("homie/+/$name"), eq(subscriber));
+        verify(connection).unsubscribe(eq("homie/other/$name"), eq(subscriber));
+    }
+
+    @Test
+    public void topicsBelowRootAreDispatched() {
+        MqttTopicDispatcher dispatcher = MqttTopicDispatcher.of(connection);
+        assertThat(dispatcher.addRoot("homie/device").join(), is(true));
+        dispatcher.addRoot("homie/device");
+        verify(connection, times(1)).subscribe(eq("homie/device/#"), eq(dispatcher));
+
+        assertThat(dispatcher.subscribe("homie/device/$name", subscriber).join(), is(true));
+        dispatcher.subscribe("homie/device/+/$properties", subscriber);
+        verify(connection, times(1)).subscribe(any(), any());
+
+        dispatcher.processMessage("homie/device/$name", "name".getBytes());
+        dispatcher.processMessage("homie/device/node/$properties", "a,b".getBytes());
+        dispatcher.processMessage("homie/device/node/a", "1".getBytes());
+        verify(subscriber).processMessage(eq("homie/device/$name"), any());
+        verify(subscriber).processMessage(eq("homie/device/node/$properties"), any());
+        verify(subscriber, times(2)).processMessage(any(), any());
+
+        assertThat(dispatcher.unsubscribe("homie/device/$name", subscriber).join(), is(true));
+        dispatcher.processMessage("homie/device/$name", "name2".getBytes());
+        verify(subscriber, times(2)).processMessage(any(), any());
+        verify(connection, times(0)).unsubscribe(any(), any());
+
+        // Root topics are reference counted
+        dispatcher.removeRoot("homie/device");
+        verify(connection, times(0)).unsubscribe(any(), any());
+        dispatcher.removeRoot("homie/device");
+        verify(connection).unsubscribe(eq("homie/device/#"), eq(dispatcher));
+    }
+
+    @Test
+    public void remainingSubscribersAreSubscribedDirectlyWhenRootIsRemoved() {
+        MqttTopicDispatcher dispatcher = MqttTopicDispatcher.of(connection);
+        dispatcher.addRoot("homie/device");
+        // For example a channel of a generic MQTT thing, which outlives the Homie thing
+        dispatcher.subscribe("homie/device/node/prop", subscriber);
+        verify(connection, times(0)).subscribe(eq("homie/device/node/prop"), any());
+
+        dispatcher.removeRoot("homie/device");
+        verify(connection).subscribe(eq("homie/device/node/prop"), eq(subscriber));
+        verify(connection).unsubscribe(eq("homie/device/#"), eq(dispatcher));
+
+        // Messages are received by the direct subscription only
+        dispatcher.processMessage("homie/device/node/prop", "1".getBytes());
+        verify(subscriber, times(0)).processMessage(any(), any());
+
+        // The subscription is removed from the connection as well
+        dispatcher.unsubscribe("homie/device/node/prop", subscriber);
+        verify(connection).unsubscribe(eq("homie/device/node/prop"), eq(subscriber));
+    }
+
+    @Test
+    public void lastMessageIsReplayedToNewSubscribers() {
+        MqttTopicDispatcher dispatcher = MqttTopicDispatcher.of(connection);
+        dispatcher.addRoot("homie/device");
+
+        byte[] payload = "ready".getBytes();
+        dispatcher.processMessage("homie/device/$state", payload);
+        dispatcher.processMessage("homie/device/$name", "name".getBytes());
+        dispatcher.processMessage("homie/device/$name", new byte[0]);
+
+        dispatcher.subscribe("homie/device/$state", subscriber);
+        dispatcher.subscribe("homie/device/$name", subscriber);
+        verify(subscriber).processMessage(eq("homie/device/$state"), same(payload));
+        verify(subscriber, times(1)).processMessage(any(), any());
+
+        MqttMessageSubscriber wildcardSubscriber = mock(MqttMessageSubscriber.class);
+        dispatcher.subscribe("homie/device/+", wildcardSubscriber);
+        verify(wildcardSubscriber).processMessage(eq("homie/device/$state"), same(payload));
+    }
+
+    @Test
+    public void failedRootSubscriptionFallsBackToDirectSubscriptions() {
+        CompletableFuture<Boolean> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new Exception("fail"));
+        doReturn(failed).when(connection).subscribe(eq("homie/device/#"), any());
+
+        MqttTopicDispatcher dispatcher = MqttTopicDispatcher.of(connection);
+        dispatcher.addRoot("homie/device");
+        dispatcher.subscribe("homie/device/$name", subscriber);
+
+        verify(connection).unsubscribe(eq("homie/device/#"), eq(dispatcher));
+        verify(connection).subscribe(eq("homie/device/$name"), eq(subscriber));
+    }
+
+    @Test
+    public void pendingSubscriptionsFallBackBeforeRootCompletes() {
+        CompletableFuture<Boolean> rootSubscribed = new CompletableFuture<>();
+        doReturn(rootSubscribed).when(connection).subscribe(eq("homie/device/#"), any());
+
+        MqttTopicDispatcher dispatcher = MqttTopicDispatcher.of(connection);
+        CompletableFuture<Boolean> root = dispatcher.addRoot("homie/device");
+        CompletableFuture<Boolean> subscribed = dispatcher.subscribe("homie/device/$name", subscriber);
+        // Subscribers are moved to the connection before the future of the root topic completes
+        CompletableFuture<Void> movedBeforeCompletion = root
+                .thenRun(() -> verify(connection).subscribe(eq("homie/device/$name"), eq(subscriber)));
+        rootSubscribed.complete(false);
+
+        movedBeforeCompletion.join();
+        assertThat(root.join(), is(false));
+        assertThat(subscribed.join(), is(true));
+        verify(connection).unsubscribe(eq("homie/device/#"), eq(dispatcher));
+
+        // Messages are received by the direct subscription only
+        dispatcher.processMessage("homie/device/$name", "name".getBytes());
+        verify(subscriber, times(0)).processMessage(any(), any());
+    }
+
+    @Test
+    public void rootIsKeptWhileDisconnected() {
+        doReturn(CompletableFuture.completedFuture(false)).when(connection).subscribe(eq("homie/device/#"), any());
+        doReturn(MqttConnectionState.DISCONNECTED).when(connection).connectionState();
+
+        MqttTopicDispatcher dispatcher = MqttTopicDispatcher.of(connection);
+        assertThat(dispatcher.addRoot("homie/device").join(), is(false));
+        dispatcher.subscribe("homie/device/$name", subscriber);
+
+        verify(connection, times(1)).subscribe(any(), any());
+        verify(connection, times(0)).unsubscribe(any(), any());
+        dispatcher.processMessage("homie/device/$name", "name".getBytes());
+        verify(subscriber).processMessage(eq("homie/device/$name"), any());
+    }
+}
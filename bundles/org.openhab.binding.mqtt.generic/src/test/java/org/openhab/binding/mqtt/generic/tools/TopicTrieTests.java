@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests cases for {@link TopicTrie}.
+ *
+ * @author agent - Initial contribution
+ */
+public class TopicTrieTests {
+    private final Logger logger = LoggerFactory.getLogger(TopicTrieTests.class);
+
+    private static List<String> match(TopicTrie<String> trie, String topic) {
+        List<String> result = new ArrayList<>();
+        trie.forEachMatch(topic, result::add);
+        Collections.sort(result);
+        return result;
+    }
+
+    @Test
+    public void wildcards() {
+        TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("homie/device/node/prop", "exact");
+        trie.add("homie/+/node/prop", "single");
+        trie.add("homie/device/#", "multi");
+        trie.add("#", "all");
+        trie.add("other/topic", "other");
+
+        assertThat(match(trie, "homie/device/node/prop"), is(Arrays.asList("all", "exact", "multi", "single")));
+        assertThat(match(trie, "homie/device2/node/prop"), is(Arrays.asList("all", "single")));
+        assertThat(match(trie, "homie/device"), is(Arrays.asList("all", "multi")));
+        assertThat(match(trie, "homie/device/node"), is(Arrays.asList("all", "multi")));
+        assertThat(match(trie, "other/topic/sub"), is(Arrays.asList("all")));
+        // Wildcards on the first level do not match $ topics
+        assertThat(match(trie, "$SYS/broker"), is(Collections.emptyList()));
+    }
+
+    @Test
+    public void emptyLevels() {
+        TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("a//b", "empty");
+        trie.add("a/+/b", "single");
+
+        assertThat(match(trie, "a//b"), is(Arrays.asList("empty", "single")));
+        assertThat(match(trie, "a/b"), is(Collections.emptyList()));
+    }
+
+    @Test
+    public void remove() {
+        TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("a/b/c", "first");
+        trie.add("a/b/c", "second");
+        trie.add("a/+", "third");
+
+        assertTrue(trie.remove("a/b/c", "first"));
+        assertFalse(trie.remove("a/b/c", "first"));
+        assertFalse(trie.remove("a/b", "second"));
+        assertThat(match(trie, "a/b/c"), is(Arrays.asList("second")));
+
+        assertTrue(trie.remove("a/b/c", "second"));
+        assertTrue(trie.remove("a/+", "third"));
+        assertTrue(trie.isEmpty());
+    }
+
+    @Test
+    public void matches() {
+        assertTrue(TopicTrie.matches("a/+/c", "a/b/c"));
+        assertTrue(TopicTrie.matches("a/#", "a"));
+        assertTrue(TopicTrie.matches("a/#", "a/b/c"));
+        assertTrue(TopicTrie.matches("#", "a/b"));
+        assertFalse(TopicTrie.matches("#", "$SYS/a"));
+        assertFalse(TopicTrie.matches("+/a", "$SYS/a"));
+        assertFalse(TopicTrie.matches("a/+", "a/b/c"));
+        assertFalse(TopicTrie.matches("a/b/c", "a/b"));
+    }
+
+    /**
+     * Subscribe and dispatch a Homie like topic tree of 50 devices with 60 topics each, and check that dispatching
+     * only visits the matching subscribers.
+     */
+    @Test
+    public void subscribeAndDispatchManyTopics() {
+        TopicTrie<String> trie = new TopicTrie<>();
+        List<String> topics = new ArrayList<>();
+        for (int device = 0; device < 50; device++) {
+            for (int node = 0; node < 6; node++) {
+                for (int property = 0; property < 10; property++) {
+                    topics.add("homie/device" + device + "/node" + node + "/property" + property);
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        topics.forEach(topic -> trie.add(topic, topic));
+        long subscribeNanos = System.nanoTime() - start;
+
+        AtomicLong dispatched = new AtomicLong();
+        start = System.nanoTime();
+        for (int round = 0; round < 100; round++) {
+            for (String topic : topics) {
+                trie.forEachMatch(topic, value -> {
+                    assertSame(topic, value);
+                    dispatched.incrementAndGet();
+                });
+            }
+        }
+        long dispatchNanos = System.nanoTime() - start;
+
+        assertThat(dispatched.get(), is(100L * topics.size()));
+        logger.info("Subscribed {} topics in {} ms, dispatched {} messages in {} ms", topics.size(),
+                subscribeNanos / 1_000_000, dispatched.get(), dispatchNanos / 1_000_000);
+    }
+}
@@ -314,4 +314,31 @@ public class ValueTests {
                 null);
         v.update(new DecimalType(9.0));
     }
+
+    @Test
+    public void parseCommandSameAsTypeParser() {
+        Value[] values = { new NumberValue(null, null, null, null), new OnOffValue("fancyON", "fancyOFF"),
+                new OpenCloseValue("fancyOPEN", "fancyCLOSED"), new TextValue() };
+        String[] payloads = { "15", "-1.5", "0.25", "INCREASE", "UP", "ON", "OFF", "fancyON", "OPEN", "CLOSED",
+                "fancyCLOSED", "text" };
+        for (Value v : values) {
+            for (String payload : payloads) {
+                Command expected = p(v, payload);
+                Command actual = v.parseCommand(payload);
+                if (expected == null || actual == null) {
+                    assertEquals(expected, actual);
+                    continue;
+                }
+                // Number values end up as DecimalType either way
+                if (v instanceof NumberValue && actual instanceof DecimalType) {
+                    v.update(expected);
+                    DecimalType expectedState = (DecimalType) v.getChannelState();
+                    v.update(actual);
+                    assertThat(v.getChannelState(), is(expectedState));
+                } else {
+                    assertThat(actual, is(expected));
+                }
+            }
+        }
+    }
 }
@@ -14,12 +14,17 @@ package org.openhab.binding.mqtt.homeassistant.internal;
 
 import java.lang.ref.WeakReference;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -43,6 +48,11 @@ import com.google.gson.Gson;
  */
 @NonNullByDefault
 public class DiscoverComponents implements MqttMessageSubscriber {
+    /**
+     * The maximum number of config topic subscriptions that are in flight at the same time
+     */
+    public static final int MAX_CONCURRENT_SUBSCRIPTIONS = 10;
+
     private final Logger logger = LoggerFactory.getLogger(DiscoverComponents.class);
     private final ThingUID thingUID;
     private final ScheduledExecutorService scheduler;
@@ -58,6 +68,7 @@ public class DiscoverComponents implements MqttMessageSubscriber {
     protected @NonNullByDefault({}) ComponentDiscovered discoveredListener;
     private int discoverTime;
     private Set<String> topics = new HashSet<>();
+    private final Map<String, String> configPerTopic = new ConcurrentHashMap<>();
 
     /**
      * Implement this to get notified of new components
@@ -93,6 +104,14 @@ public class DiscoverComponents implements MqttMessageSubscriber {
         HaID haID = new HaID(topic);
         String config = new String(payload);
 
+        // Retained config topics are received again after each reconnect. Only parse changed configurations.
+        final String previousConfig = configPerTopic.put(topic, config);
+        if (config.equals(previousConfig)) {
+            logger.trace("Configuration of HomeAssistant thing {} component {} unchanged", haID.objectID,
+                    haID.component);
+            return;
+        }
+
         AbstractComponent<?> component = null;
 
         if (config.length() > 0) {
@@ -107,6 +126,8 @@ public class DiscoverComponents implements MqttMessageSubscriber {
                 discoveredListener.componentDiscovered(haID, component);
             }
         } else {
+            // Parse again if the configuration is received next time
+            configPerTopic.remove(topic);
             logger.debug("Configuration of HomeAssistant thing {} invalid: {}", haID.objectID, config);
         }
     }
@@ -136,20 +157,47 @@ public class DiscoverComponents implements MqttMessageSubscriber {
         this.discoveredListener = componentsDiscoveredListener;
         this.connectionRef = new WeakReference<>(connection);
 
-        // Subscribe to the wildcard topic and start receive MQTT retained topics
-        this.topics.parallelStream().map(t -> connection.subscribe(t, this)).collect(FutureCollector.allOf())
-                .thenRun(this::subscribeSuccess).exceptionally(this::subscribeFail);
+        // Subscribe to the config topics and start receive MQTT retained topics
+        final long startTime = System.nanoTime();
+        subscribeAll(connection, this.topics).thenRun(() -> {
+            logger.debug("Subscribed to {} HomeAssistant config topics of {} in {} ms", topics.size(), thingUID,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            subscribeSuccess();
+        }).exceptionally(this::subscribeFail);
 
         return discoverFinishedFuture;
     }
 
+    /**
+     * Subscribes to all given topics, with at most {@link #MAX_CONCURRENT_SUBSCRIPTIONS} subscriptions
+     * in flight at a time. A thing with many components would otherwise flood the broker connection
+     * after a reconnect.
+     *
+     * @param connection A MQTT broker connection
+     * @param topics The topics
+     * @return A future that completes when all subscriptions are done.
+     */
+    protected CompletableFuture<Void> subscribeAll(MqttBrokerConnection connection, Set<String> topics) {
+        final Queue<String> pending = new ConcurrentLinkedQueue<>(topics);
+        return IntStream.range(0, Math.min(MAX_CONCURRENT_SUBSCRIPTIONS, topics.size()))
+                .mapToObj(i -> subscribeNext(connection, pending)).collect(FutureCollector.allOf());
+    }
+
+    private CompletableFuture<@Nullable Void> subscribeNext(MqttBrokerConnection connection, Queue<String> pending) {
+        final String topic = pending.poll();
+        if (topic == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return connection.subscribe(topic, this).thenCompose(b -> subscribeNext(connection, pending));
+    }
+
     private void subscribeSuccess() {
         final MqttBrokerConnection connection = connectionRef.get();
         // Set up a scheduled future that will stop the discovery after the given time
         if (connection != null && discoverTime > 0) {
             this.stopDiscoveryFuture = scheduler.schedule(() -> {
                 this.stopDiscoveryFuture = null;
-                this.topics.parallelStream().forEach(t -> connection.unsubscribe(t, this));
+                this.topics.forEach(t -> connection.unsubscribe(t, this));
                 this.discoveredListener = null;
                 discoverFinishedFuture.complete(null);
             }, discoverTime, TimeUnit.MILLISECONDS);
@@ -168,7 +216,7 @@ public class DiscoverComponents implements MqttMessageSubscriber {
         this.discoveredListener = null;
         final MqttBrokerConnection connection = connectionRef.get();
         if (connection != null) {
-            this.topics.parallelStream().forEach(t -> connection.unsubscribe(t, this));
+            this.topics.forEach(t -> connection.unsubscribe(t, this));
             connectionRef.clear();
         }
         discoverFinishedFuture.completeExceptionally(e);
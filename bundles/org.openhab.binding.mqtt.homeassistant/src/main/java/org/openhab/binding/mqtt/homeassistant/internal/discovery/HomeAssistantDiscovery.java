@@ -14,6 +14,7 @@ package org.openhab.binding.mqtt.homeassistant.internal.discovery;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -56,16 +57,29 @@ import com.google.gson.GsonBuilder;
  * The {@link HomeAssistantDiscovery} is responsible for discovering device nodes that follow the
  * Home Assistant MQTT discovery convention (https://www.home-assistant.io/docs/mqtt/discovery/).
  *
+ * <p>
+ * Discovery results are built incrementally. The components found per Thing are kept, so that a newly appearing
+ * component only updates the result of its Thing. Config topics are retained and received again after each
+ * reconnect. Config payloads that did not change since they were last received from the same broker connection are
+ * therefore not parsed again.
+ * </p>
+ *
  * @author David Graeff - Initial contribution
  */
 @Component(immediate = true, service = DiscoveryService.class, configurationPid = "discovery.mqttha")
 @NonNullByDefault
 public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
-    @SuppressWarnings("unused")
     private final Logger logger = LoggerFactory.getLogger(HomeAssistantDiscovery.class);
     protected final Map<String, Set<HaID>> componentsPerThingID = new TreeMap<>();
     protected final Map<String, ThingUID> thingIDPerTopic = new TreeMap<>();
     protected final Map<String, DiscoveryResult> results = new TreeMap<>();
+    // Last config payload per config topic, for each broker connection
+    protected final Map<ThingUID, Map<String, byte[]>> configPerBridge = new HashMap<>();
+
+    // Metrics of the currently running discovery round, guarded by "results"
+    private long discoveryStartTime = 0;
+    private int receivedConfigs = 0;
+    private int unchangedConfigs = 0;
 
     private @Nullable ScheduledFuture<?> future;
     private final Gson gson;
@@ -121,6 +135,27 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         this.typeProvider = null;
     }
 
+    @Override
+    protected void startScan() {
+        // A manual scan publishes all results again, even for unchanged configurations
+        resetKnownConfigs();
+        super.startScan();
+    }
+
+    @Override
+    protected void startBackgroundDiscovery() {
+        // All previous results are removed by the background discovery start
+        resetKnownConfigs();
+        super.startBackgroundDiscovery();
+    }
+
+    private void resetKnownConfigs() {
+        synchronized (results) {
+            configPerBridge.clear();
+            componentsPerThingID.clear();
+        }
+    }
+
     @Override
     public Set<@NonNull ThingTypeUID> getSupportedThingTypes() {
         return typeProvider.getThingTypeUIDs();
@@ -147,6 +182,18 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         }
         this.future = scheduler.schedule(this::publishResults, 2, TimeUnit.SECONDS);
 
+        synchronized (results) {
+            if (discoveryStartTime == 0) {
+                discoveryStartTime = System.nanoTime();
+            }
+            receivedConfigs++;
+            final Map<String, byte[]> configPerTopic = configPerBridge.get(connectionBridge);
+            if (configPerTopic != null && Arrays.equals(configPerTopic.get(topic), payload)) {
+                unchangedConfigs++;
+                return;
+            }
+        }
+
         BaseChannelConfiguration config = BaseChannelConfiguration
                 .fromString(new String(payload, StandardCharsets.UTF_8), gson);
 
@@ -162,23 +209,24 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
 
         final ThingUID thingUID = new ThingUID(typeID, connectionBridge, thingID);
 
-        thingIDPerTopic.put(topic, thingUID);
+        synchronized (results) {
+            configPerBridge.computeIfAbsent(connectionBridge, key -> new HashMap<>()).put(topic, payload);
+            thingIDPerTopic.put(topic, thingUID);
 
-        // We need to keep track of already found component topics for a specific thing
-        Set<HaID> components = componentsPerThingID.computeIfAbsent(thingID, key -> new HashSet<>());
-        components.add(haID);
+            // We need to keep track of already found component topics for a specific thing
+            Set<HaID> components = componentsPerThingID.computeIfAbsent(thingID, key -> new HashSet<>());
+            components.add(haID);
 
-        final String componentNames = components.stream().map(id -> id.component)
-                .map(c -> HA_COMP_TO_NAME.getOrDefault(c, c)).collect(Collectors.joining(", "));
+            final String componentNames = components.stream().map(id -> id.component)
+                    .map(c -> HA_COMP_TO_NAME.getOrDefault(c, c)).collect(Collectors.joining(", "));
 
-        final List<String> topics = components.stream().map(HaID::toShortTopic).collect(Collectors.toList());
+            final List<String> topics = components.stream().map(HaID::toShortTopic).collect(Collectors.toList());
 
-        Map<String, Object> properties = new HashMap<>();
-        HandlerConfiguration handlerConfig = new HandlerConfiguration(haID.baseTopic, topics);
-        properties = handlerConfig.appendToProperties(properties);
-        properties = config.appendToProperties(properties);
+            Map<String, Object> properties = new HashMap<>();
+            HandlerConfiguration handlerConfig = new HandlerConfiguration(haID.baseTopic, topics);
+            properties = handlerConfig.appendToProperties(properties);
+            properties = config.appendToProperties(properties);
 
-        synchronized (results) {
             // Because we need the new properties map with the updated "components" list
             results.put(thingUID.getAsString(),
                     DiscoveryResultBuilder.create(thingUID).withProperties(properties)
@@ -193,7 +241,15 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         synchronized (results) {
             localResults = new ArrayList<>(results.values());
             results.clear();
-            componentsPerThingID.clear();
+            if (discoveryStartTime != 0) {
+                // The time includes the quiet period of 2 seconds
+                logger.debug("Home Assistant discovery: {} config messages, {} unchanged, {} results in {} ms",
+                        receivedConfigs, unchangedConfigs, localResults.size(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - discoveryStartTime));
+            }
+            discoveryStartTime = 0;
+            receivedConfigs = 0;
+            unchangedConfigs = 0;
         }
         for (DiscoveryResult result : localResults) {
             final ThingTypeUID typeID = result.getThingTypeUID();
@@ -209,17 +265,30 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         if (!topic.endsWith("/config")) {
             return;
         }
-        if (thingIDPerTopic.containsKey(topic)) {
-            ThingUID thingUID = thingIDPerTopic.remove(topic);
-            final String thingID = thingUID.getId();
-
-            HaID haID = new HaID(topic);
-
-            Set<HaID> components = componentsPerThingID.getOrDefault(thingID, Collections.emptySet());
-            components.remove(haID);
-            if (components.isEmpty()) {
-                thingRemoved(thingUID);
+        @Nullable
+        ThingUID thingUID;
+        boolean removed = false;
+        synchronized (results) {
+            final Map<String, byte[]> configPerTopic = configPerBridge.get(connectionBridge);
+            if (configPerTopic != null) {
+                configPerTopic.remove(topic);
+            }
+            thingUID = thingIDPerTopic.remove(topic);
+            if (thingUID != null) {
+                final String thingID = thingUID.getId();
+
+                HaID haID = new HaID(topic);
+
+                Set<HaID> components = componentsPerThingID.getOrDefault(thingID, Collections.emptySet());
+                components.remove(haID);
+                if (components.isEmpty()) {
+                    componentsPerThingID.remove(thingID);
+                    removed = true;
+                }
             }
         }
+        if (removed && thingUID != null) {
+            thingRemoved(thingUID);
+        }
     }
 }
@@ -30,6 +30,7 @@ import org.openhab.binding.mqtt.generic.AbstractMQTTThingHandler;
 import org.openhab.binding.mqtt.generic.ChannelState;
 import org.openhab.binding.mqtt.generic.MqttChannelTypeProvider;
 import org.openhab.binding.mqtt.generic.tools.DelayedBatchProcessing;
+import org.openhab.binding.mqtt.generic.tools.MqttTopicDispatcher;
 import org.openhab.binding.mqtt.homie.generic.internal.MqttBindingConstants;
 import org.openhab.binding.mqtt.homie.internal.homie300.Device;
 import org.openhab.binding.mqtt.homie.internal.homie300.DeviceAttributes;
@@ -58,6 +59,8 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
     protected HandlerConfiguration config = new HandlerConfiguration();
     protected DelayedBatchProcessing<Object> delayedProcessing;
     private @Nullable ScheduledFuture<?> heartBeatTimer;
+    /** Dispatches all topics of the device, which is subscribed with a single wildcard subscription */
+    private @Nullable MqttTopicDispatcher dispatcher;
 
     /**
      * Create a new thing handler for homie discovered things. A channel type provider and a topic value receive timeout
@@ -122,11 +125,20 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
                     "Homie devices require QoS 1 but Qos 0/2 is configured. Using override. Please check the configuration");
             connection.setQos(1);
         }
-        return device.subscribe(connection, scheduler, attributeReceiveTimeout).thenCompose((Void v) -> {
-            return device.startChannels(connection, scheduler, attributeReceiveTimeout, this);
-        }).thenRun(() -> {
-            logger.debug("Homie device {} fully attached", device.attributes.name);
-        });
+        final MqttTopicDispatcher previousDispatcher = this.dispatcher;
+        if (previousDispatcher != null) {
+            previousDispatcher.removeRoot(getDeviceTopic());
+        }
+        final MqttTopicDispatcher dispatcher = MqttTopicDispatcher.of(connection);
+        this.dispatcher = dispatcher;
+        // If the device topic cannot be subscribed, the dispatcher falls back to one subscription per topic
+        return dispatcher.addRoot(getDeviceTopic()).exceptionally(e -> false)
+                .thenCompose(b -> device.subscribe(connection, scheduler, attributeReceiveTimeout))
+                .thenCompose((Void v) -> {
+                    return device.startChannels(connection, scheduler, attributeReceiveTimeout, this);
+                }).thenRun(() -> {
+                    logger.debug("Homie device {} fully attached", device.attributes.name);
+                });
     }
 
     @Override
@@ -138,7 +150,17 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
             this.heartBeatTimer = null;
         }
         delayedProcessing.join();
-        device.stop();
+        final MqttTopicDispatcher dispatcher = this.dispatcher;
+        this.dispatcher = null;
+        device.stop().whenComplete((v, e) -> {
+            if (dispatcher != null) {
+                dispatcher.removeRoot(getDeviceTopic());
+            }
+        });
+    }
+
+    private String getDeviceTopic() {
+        return config.basetopic + "/" + config.deviceid;
     }
 
     @Override
@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.mqttembeddedbroker;
+
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Load metrics of the embedded broker. Registered as OSGi service together with the embedded broker service.
+ * <p>
+ * All values are collected since the embedded broker has been started.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public interface EmbeddedBrokerMetrics {
+    /**
+     * Returns the number of connected clients.
+     */
+    int getConnectedClientCount();
+
+    /**
+     * Returns the number of messages published by each connected client since it connected.
+     *
+     * @return A map of client IDs to message counts
+     */
+    Map<String, Long> getPublishedMessagesPerClient();
+
+    /**
+     * Returns the average publish rate of each connected client since it connected.
+     *
+     * @return A map of client IDs to messages per second
+     */
+    Map<String, Double> getPublishRatePerClient();
+
+    /**
+     * Returns the number of topics with a retained message published since the broker has been started. Retained
+     * messages restored from the persistence file are not included, until they are published again. The value is
+     * therefore not the number of retained messages in the store of the broker.
+     */
+    int getPublishedRetainedTopicCount();
+}
@@ -23,13 +23,17 @@ import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.net.ssl.KeyManagerFactory;
 
@@ -44,6 +48,7 @@ import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionState;
 import org.eclipse.smarthome.io.transport.mqtt.MqttService;
 import org.eclipse.smarthome.io.transport.mqtt.MqttServiceObserver;
 import org.openhab.io.mqttembeddedbroker.Constants;
+import org.openhab.io.mqttembeddedbroker.EmbeddedBrokerMetrics;
 import org.openhab.io.mqttembeddedbroker.internal.MqttEmbeddedBrokerDetectStart.MqttEmbeddedBrokerStartedListener;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -76,23 +81,38 @@ import io.netty.handler.ssl.SslContextBuilder;
  * <p>
  * For now tls connections are offered with an accept-all trust manager
  * and a predefined keystore if "secure" is set to true.
+ * <p>
+ * Load metrics of the broker are provided via the {@link EmbeddedBrokerMetrics} service.
  *
  * @author David Graeff - Initial contribution
  */
-@Component(immediate = true, service = EmbeddedBrokerService.class, configurationPid = "org.eclipse.smarthome.mqttembeddedbroker", property = {
+@Component(immediate = true, service = { EmbeddedBrokerService.class,
+        EmbeddedBrokerMetrics.class }, configurationPid = "org.eclipse.smarthome.mqttembeddedbroker", property = {
         org.osgi.framework.Constants.SERVICE_PID + "=org.eclipse.smarthome.mqttembeddedbroker",
         ConfigurableService.SERVICE_PROPERTY_DESCRIPTION_URI + "=mqtt:mqttembeddedbroker",
         ConfigurableService.SERVICE_PROPERTY_CATEGORY + "=MQTT",
         ConfigurableService.SERVICE_PROPERTY_LABEL + "=MQTT Embedded Broker" })
 @NonNullByDefault
-public class EmbeddedBrokerService
-        implements ConfigurableService, MqttConnectionObserver, MqttServiceObserver, MqttEmbeddedBrokerStartedListener {
+public class EmbeddedBrokerService implements ConfigurableService, MqttConnectionObserver, MqttServiceObserver,
+        MqttEmbeddedBrokerStartedListener, EmbeddedBrokerMetrics {
     private final MqttService service;
     private String persistenceFilename = "";
+    private int persistenceFlushInterval = 30;
     // private NetworkServerTls networkServerTls; //TODO wait for NetworkServerTls implementation
 
+    static class ClientMetrics {
+        final long connectedSince = System.currentTimeMillis();
+        final LongAdder published = new LongAdder();
+    }
+
+    /**
+     * Moquette calls intercept handlers on its own executor and not on the network threads,
+     * so the counting does not slow down the broker.
+     */
     @NonNullByDefault({})
     class BrokerMetricsListenerEx implements InterceptHandler {
+        final Map<String, ClientMetrics> clients = new ConcurrentHashMap<>();
+        final Set<String> retainedTopics = ConcurrentHashMap.newKeySet();
 
         @Override
         public String getID() {
@@ -101,21 +121,30 @@ public class EmbeddedBrokerService
 
         @Override
         public Class<?>[] getInterceptedMessageTypes() {
-            return new Class<?>[] { InterceptConnectMessage.class, InterceptDisconnectMessage.class };
+            return new Class<?>[] { InterceptConnectMessage.class, InterceptDisconnectMessage.class,
+                    InterceptConnectionLostMessage.class, InterceptPublishMessage.class };
+        }
+
+        void reset() {
+            clients.clear();
+            retainedTopics.clear();
         }
 
         @Override
         public void onConnect(InterceptConnectMessage arg0) {
             logger.debug("MQTT Client connected: {}", arg0.getClientID());
+            clients.put(arg0.getClientID(), new ClientMetrics());
         }
 
         @Override
         public void onConnectionLost(InterceptConnectionLostMessage arg0) {
+            clients.remove(arg0.getClientID());
         }
 
         @Override
         public void onDisconnect(InterceptDisconnectMessage arg0) {
             logger.debug("MQTT Client disconnected: {}", arg0.getClientID());
+            clients.remove(arg0.getClientID());
         }
 
         @Override
@@ -124,6 +153,15 @@ public class EmbeddedBrokerService
 
         @Override
         public void onPublish(InterceptPublishMessage arg0) {
+            clients.computeIfAbsent(arg0.getClientID(), id -> new ClientMetrics()).published.increment();
+            if (arg0.isRetainFlag()) {
+                // A retained message without payload removes the retained message of that topic
+                if (arg0.getPayload().readableBytes() > 0) {
+                    retainedTopics.add(arg0.getTopicName());
+                } else {
+                    retainedTopics.remove(arg0.getTopicName());
+                }
+            }
         }
 
         @Override
@@ -182,7 +220,9 @@ public class EmbeddedBrokerService
                 this.persistenceFilename = path.resolve(persistenceFilename).toString();
             }
 
-            logger.info("Broker persistence file: {}", persistenceFilename);
+            persistenceFlushInterval = Math.max(1, config.persistenceFlushInterval);
+            logger.info("Broker persistence file: {}, flushed every {} seconds", persistenceFilename,
+                    persistenceFlushInterval);
         } else {
             logger.info("Using in-memory persistence. No persistence file has been set!");
         }
@@ -294,7 +334,9 @@ public class EmbeddedBrokerService
 
         if (!persistenceFilename.isEmpty()) { // Persistence: If not set, an in-memory database is used.
             properties.put(BrokerConstants.PERSISTENT_STORE_PROPERTY_NAME, persistenceFilename);
-            properties.put(BrokerConstants.AUTOSAVE_INTERVAL_PROPERTY_NAME, "30"); // in seconds
+            // Retained messages are written to the store in memory and flushed to the file in the background
+            properties.put(BrokerConstants.AUTOSAVE_INTERVAL_PROPERTY_NAME,
+                    Integer.toString(persistenceFlushInterval)); // in seconds
         }
 
         // We may provide ACL functionality at some point as well
@@ -313,6 +355,7 @@ public class EmbeddedBrokerService
             }
         }
         this.server = server;
+        metrics.reset();
         server.addInterceptHandler(metrics);
         ScheduledExecutorService s = new ScheduledThreadPoolExecutor(1);
         detectStart.startBrokerStartedDetection(port, s);
@@ -382,6 +425,34 @@ public class EmbeddedBrokerService
         return connection;
     }
 
+    @Override
+    public int getConnectedClientCount() {
+        return metrics.clients.size();
+    }
+
+    @Override
+    public Map<String, Long> getPublishedMessagesPerClient() {
+        Map<String, Long> result = new HashMap<>();
+        metrics.clients.forEach((clientID, client) -> result.put(clientID, client.published.sum()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getPublishRatePerClient() {
+        final long now = System.currentTimeMillis();
+        Map<String, Double> result = new HashMap<>();
+        metrics.clients.forEach((clientID, client) -> {
+            long elapsed = Math.max(1, now - client.connectedSince);
+            result.put(clientID, client.published.sum() * 1000.0 / elapsed);
+        });
+        return result;
+    }
+
+    @Override
+    public int getPublishedRetainedTopicCount() {
+        return metrics.retainedTopics.size();
+    }
+
     public String getPersistenceFilename() {
         return persistenceFilename;
     }
@@ -46,6 +46,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.openhab.io.mqttembeddedbroker.Constants;
 
 import io.moquette.broker.RetainedMessage;
 import io.moquette.broker.subscriptions.Topic;
@@ -136,6 +137,26 @@ public class MqttEmbeddedBrokerServiceTest extends JavaTest {
         correctCredentials.stop().get();
     }
 
+    @Test
+    public void metrics() throws InterruptedException, ExecutionException {
+        MqttBrokerConnection c = subject.getConnection();
+        assertNotNull(c);
+        waitForConnectionChange(c, MqttConnectionState.CONNECTED);
+
+        c.publish("demotopic", "testtest".getBytes(), 1, true).get();
+        c.publish("othertopic", "testtest".getBytes(), 1, false).get();
+
+        // Intercept handlers are called asynchronously
+        waitForAssert(() -> assertThat(subject.getPublishedMessagesPerClient().get(Constants.CLIENTID), is(2L)));
+        assertThat(subject.getConnectedClientCount(), is(1));
+        assertThat(subject.getPublishedRetainedTopicCount(), is(1));
+        assertTrue(subject.getPublishRatePerClient().get(Constants.CLIENTID) > 0);
+
+        // An empty retained message removes the retained topic
+        c.publish("demotopic", new byte[0], 1, true).get();
+        waitForAssert(() -> assertThat(subject.getPublishedRetainedTopicCount(), is(0)));
+    }
+
     @Test
     public void connectSecure() throws InterruptedException, IOException {
         config.put("secure", true);
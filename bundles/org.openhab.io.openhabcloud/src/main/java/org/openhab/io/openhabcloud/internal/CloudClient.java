@@ -22,10 +22,13 @@ import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.api.Request;
@@ -37,6 +40,7 @@ import org.eclipse.jetty.client.api.Result;
 import org.eclipse.jetty.client.util.BytesContentProvider;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.util.BufferUtil;
@@ -67,6 +71,13 @@ import io.socket.engineio.client.Transport;
  */
 
 public class CloudClient {
+    private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
+
+    /*
+     * Response content of a known length is collected up to this size before it is sent to the openHAB Cloud
+     */
+    private static final int RESPONSE_CHUNK_SIZE = 64 * 1024;
+
     /*
      * Logger for this class
      */
@@ -98,10 +109,26 @@ public class CloudClient {
     private final HttpClient jettyClient;
 
     /*
-     * This hashmap holds HTTP requests to local openHAB which are currently running
+     * This hashmap holds HTTP requests to local openHAB which are currently running or queued.
+     * It is also the lock for activeRequests and queuedRequests.
      */
     private Map<Integer, Request> runningRequests;
 
+    /*
+     * The maximum number of requests to local openHAB that are sent at the same time. Further requests are queued.
+     */
+    private int maxConcurrentRequests = 200;
+
+    /*
+     * The number of requests that have been sent to local openHAB and are not completed yet
+     */
+    private int activeRequests = 0;
+
+    /*
+     * Requests that wait for a free slot, in the order they were received
+     */
+    private final Map<Integer, Runnable> queuedRequests = new LinkedHashMap<>();
+
     /*
      * This variable indicates if connection to the openHAB Cloud is currently in an established state
      */
@@ -131,6 +158,28 @@ public class CloudClient {
     private boolean remoteAccessEnabled;
     private Set<String> exposedItems;
 
+    /*
+     * Item updates are collected for this time in milliseconds and only the latest state per item is sent.
+     * 0 sends each update immediately.
+     */
+    private int itemUpdateInterval = 0;
+
+    /*
+     * This map holds the latest not yet sent state of each item, guarded by itself
+     */
+    private final Map<String, String> pendingItemUpdates = new LinkedHashMap<>();
+    private ScheduledFuture<?> itemUpdateFlush;
+
+    /*
+     * Item updates that were replaced by a newer state before they were sent
+     */
+    private final AtomicLong coalescedItemUpdates = new AtomicLong();
+
+    /*
+     * Item updates that were not sent, because there was no connection
+     */
+    private final AtomicLong droppedItemUpdates = new AtomicLong();
+
     /**
      * Constructor of CloudClient
      *
@@ -242,8 +291,9 @@ public class CloudClient {
                 this.localBaseUrl);
         isConnected = false;
         // And clean up the list of running requests
-        if (runningRequests != null) {
+        synchronized (runningRequests) {
             runningRequests.clear();
+            queuedRequests.clear();
         }
     }
 
@@ -293,22 +343,21 @@ public class CloudClient {
             // Get JSONObject for request query parameters
             JSONObject requestQueryJson = data.getJSONObject("query");
             // Create URI builder with base request URI of openHAB and path from request
-            String newPath = URIUtil.addPaths(localBaseUrl, requestPath);
+            StringBuilder newPath = new StringBuilder(URIUtil.addPaths(localBaseUrl, requestPath));
             @SuppressWarnings("unchecked")
             Iterator<String> queryIterator = requestQueryJson.keys();
             // Add query parameters to URI builder, if any
-            newPath += "?";
+            newPath.append('?');
             while (queryIterator.hasNext()) {
                 String queryName = queryIterator.next();
-                newPath += queryName;
-                newPath += "=";
-                newPath += URLEncoder.encode(requestQueryJson.getString(queryName), "UTF-8");
+                newPath.append(queryName).append('=')
+                        .append(URLEncoder.encode(requestQueryJson.getString(queryName), "UTF-8"));
                 if (queryIterator.hasNext()) {
-                    newPath += "&";
+                    newPath.append('&');
                 }
             }
             // Finally get the future request URI
-            URI requestUri = new URI(newPath);
+            URI requestUri = new URI(newPath.toString());
             // All preparations which are common for different methods are done
             // Now perform the request to openHAB
             // If method is GET
@@ -335,10 +384,24 @@ public class CloudClient {
                 return;
             }
             ResponseListener listener = new ResponseListener(requestId);
-            request.onResponseHeaders(listener).onResponseContent(listener).onRequestFailure(listener).send(listener);
-            // If successfully submitted request to http client, add it to the list of currently
-            // running requests to be able to cancel it if needed
-            runningRequests.put(requestId, request);
+            request.onResponseHeaders(listener).onResponseContent(listener).onRequestFailure(listener);
+            // Add it to the list of currently running requests to be able to cancel it if needed,
+            // before it is sent and may complete
+            Runnable send = () -> request.send(listener);
+            boolean sendNow;
+            synchronized (runningRequests) {
+                runningRequests.put(requestId, request);
+                sendNow = activeRequests < maxConcurrentRequests;
+                if (sendNow) {
+                    activeRequests++;
+                } else {
+                    queuedRequests.put(requestId, send);
+                    logger.debug("Queued request {}, {} requests are running", requestId, activeRequests);
+                }
+            }
+            if (sendNow) {
+                send.run();
+            }
         } catch (JSONException | IOException | URISyntaxException e) {
             logger.debug("{}", e.getMessage());
         }
@@ -367,11 +430,16 @@ public class CloudClient {
         try {
             int requestId = data.getInt("id");
             logger.debug("Received cancel for request {}", requestId);
-            // Find and abort running request
-            if (runningRequests.containsKey(requestId)) {
-                Request request = runningRequests.get(requestId);
+            // Find and abort running request. A queued request is just removed.
+            Request request;
+            synchronized (runningRequests) {
+                request = runningRequests.remove(requestId);
+                if (queuedRequests.remove(requestId) != null) {
+                    request = null;
+                }
+            }
+            if (request != null) {
                 request.abort(new InterruptedException());
-                runningRequests.remove(requestId);
             }
         } catch (JSONException e) {
             logger.debug("{}", e.getMessage());
@@ -476,21 +544,83 @@ public class CloudClient {
      *
      */
     public void sendItemUpdate(String itemName, String itemState) {
-        if (isConnected()) {
-            logger.debug("Sending update '{}' for item '{}'", itemState, itemName);
-            JSONObject itemUpdateMessage = new JSONObject();
-            try {
-                itemUpdateMessage.put("itemName", itemName);
-                itemUpdateMessage.put("itemStatus", itemState);
-                socket.emit("itemupdate", itemUpdateMessage);
-            } catch (JSONException e) {
-                logger.debug("{}", e.getMessage());
-            }
-        } else {
+        if (!isConnected()) {
+            droppedItemUpdates.incrementAndGet();
             logger.debug("No connection, Item update is not sent");
+            return;
+        }
+        if (itemUpdateInterval <= 0) {
+            emitItemUpdate(itemName, itemState);
+            return;
+        }
+        synchronized (pendingItemUpdates) {
+            if (pendingItemUpdates.put(itemName, itemState) != null) {
+                coalescedItemUpdates.incrementAndGet();
+            }
+            if (itemUpdateFlush == null) {
+                itemUpdateFlush = ThreadPoolManager.getScheduledPool(THREADPOOL_OPENHABCLOUD)
+                        .schedule(this::flushItemUpdates, itemUpdateInterval, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Sends the latest state of all items that were updated within the last item update interval.
+     * The updates are emitted together, so that they are written in one go by the Socket.IO client.
+     */
+    private void flushItemUpdates() {
+        Map<String, String> updates;
+        synchronized (pendingItemUpdates) {
+            updates = new LinkedHashMap<>(pendingItemUpdates);
+            pendingItemUpdates.clear();
+            itemUpdateFlush = null;
+        }
+        if (!isConnected()) {
+            droppedItemUpdates.addAndGet(updates.size());
+            logger.debug("No connection, {} Item updates are not sent", updates.size());
+            return;
+        }
+        updates.forEach(this::emitItemUpdate);
+        logger.debug("Sent {} Item updates, {} coalesced and {} dropped Item updates in total", updates.size(),
+                coalescedItemUpdates.get(), droppedItemUpdates.get());
+    }
+
+    private void emitItemUpdate(String itemName, String itemState) {
+        logger.debug("Sending update '{}' for item '{}'", itemState, itemName);
+        JSONObject itemUpdateMessage = new JSONObject();
+        try {
+            itemUpdateMessage.put("itemName", itemName);
+            itemUpdateMessage.put("itemStatus", itemState);
+            socket.emit("itemupdate", itemUpdateMessage);
+        } catch (JSONException e) {
+            logger.debug("{}", e.getMessage());
         }
     }
 
+    /**
+     * Sets the time item updates are collected before they are sent. Only the latest state of each item
+     * is sent.
+     *
+     * @param itemUpdateInterval the interval in milliseconds, 0 to send each update immediately
+     */
+    public void setItemUpdateInterval(int itemUpdateInterval) {
+        this.itemUpdateInterval = itemUpdateInterval;
+    }
+
+    /**
+     * Returns the number of item updates that were replaced by a newer state before they were sent
+     */
+    public long getCoalescedItemUpdates() {
+        return coalescedItemUpdates.get();
+    }
+
+    /**
+     * Returns the number of item updates that were not sent, because there was no connection
+     */
+    public long getDroppedItemUpdates() {
+        return droppedItemUpdates.get();
+    }
+
     /**
      * Returns true if openHAB Cloud connection is active
      */
@@ -503,6 +633,13 @@ public class CloudClient {
      */
     public void shutdown() {
         logger.info("Shutting down openHAB Cloud service connection");
+        synchronized (pendingItemUpdates) {
+            if (itemUpdateFlush != null) {
+                itemUpdateFlush.cancel(false);
+                itemUpdateFlush = null;
+            }
+            pendingItemUpdates.clear();
+        }
         socket.disconnect();
     }
 
@@ -518,16 +655,52 @@ public class CloudClient {
         this.listener = listener;
     }
 
+    /**
+     * Sets the maximum number of requests to local openHAB that are sent at the same time.
+     * Further requests from the openHAB Cloud are queued until a running request completes.
+     *
+     * @param maxConcurrentRequests the maximum number of concurrent requests
+     */
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    /**
+     * Called when a sent request completed. Sends the next queued request, if any.
+     */
+    private void requestCompleted(int requestId) {
+        Runnable next = null;
+        synchronized (runningRequests) {
+            runningRequests.remove(requestId);
+            activeRequests--;
+            Iterator<Runnable> queued = queuedRequests.values().iterator();
+            if (queued.hasNext()) {
+                next = queued.next();
+                queued.remove();
+                activeRequests++;
+            }
+        }
+        if (next != null) {
+            next.run();
+        }
+    }
+
     /*
      * An internal class which forwards response headers and data back to the openHAB Cloud
      */
     private class ResponseListener
             implements Response.CompleteListener, HeadersListener, ContentListener, FailureListener {
 
-        private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
         private int mRequestId;
         private boolean mHeadersSent = false;
 
+        /*
+         * Response content that is not yet sent, only used for responses with a known length
+         */
+        private boolean mAggregateContent = false;
+        private byte[] mPendingContent;
+        private int mPendingLength = 0;
+
         public ResponseListener(int requestId) {
             mRequestId = requestId;
         }
@@ -546,8 +719,12 @@ public class CloudClient {
 
         @Override
         public void onComplete(Result result) {
+            // Send remaining content before the response is finished
+            synchronized (this) {
+                sendPendingContent();
+            }
             // Remove this request from list of running requests
-            runningRequests.remove(mRequestId);
+            requestCompleted(mRequestId);
             if ((result != null && result.isFailed())
                     && (result.getResponse() != null && result.getResponse().getStatus() != HttpStatus.OK_200)) {
                 if (result.getFailure() != null) {
@@ -591,14 +768,49 @@ public class CloudClient {
         }
 
         @Override
-        public void onContent(Response response, ByteBuffer content) {
+        public synchronized void onContent(Response response, ByteBuffer content) {
             logger.debug("Jetty received response content of size {}", String.valueOf(content.remaining()));
+            // Streaming responses like server sent events have no length and need to be forwarded immediately.
+            // Also forward chunks that are large enough on their own without copying them twice.
+            if (!mAggregateContent || (mPendingLength == 0 && content.remaining() >= RESPONSE_CHUNK_SIZE)) {
+                sendContent(BufferUtil.toArray(content));
+                return;
+            }
+            while (content.hasRemaining()) {
+                if (mPendingContent == null) {
+                    mPendingContent = new byte[RESPONSE_CHUNK_SIZE];
+                }
+                int length = Math.min(content.remaining(), RESPONSE_CHUNK_SIZE - mPendingLength);
+                content.get(mPendingContent, mPendingLength, length);
+                mPendingLength += length;
+                if (mPendingLength == RESPONSE_CHUNK_SIZE) {
+                    sendPendingContent();
+                }
+            }
+        }
+
+        private void sendPendingContent() {
+            if (mPendingLength == 0) {
+                return;
+            }
+            byte[] pendingContent = mPendingContent;
+            // A full chunk is handed over as is, a new one is allocated for the next content
+            sendContent(mPendingLength == RESPONSE_CHUNK_SIZE ? pendingContent
+                    : Arrays.copyOf(pendingContent, mPendingLength));
+            mPendingContent = null;
+            mPendingLength = 0;
+        }
+
+        /**
+         * The Socket.IO client sends byte arrays within a JSON object as binary attachments
+         */
+        private void sendContent(byte[] body) {
             JSONObject responseJson = new JSONObject();
             try {
                 responseJson.put("id", mRequestId);
-                responseJson.put("body", BufferUtil.toArray(content));
+                responseJson.put("body", body);
                 socket.emit("responseContentBinary", responseJson);
-                logger.debug("Sent content to request {}", mRequestId);
+                logger.debug("Sent content of size {} to request {}", body.length, mRequestId);
             } catch (JSONException e) {
                 logger.debug("{}", e.getMessage());
             }
@@ -610,6 +822,9 @@ public class CloudClient {
                 logger.debug("Jetty finished receiving response header");
                 JSONObject responseJson = new JSONObject();
                 mHeadersSent = true;
+                synchronized (this) {
+                    mAggregateContent = response.getHeaders().containsKey(HttpHeader.CONTENT_LENGTH.asString());
+                }
                 try {
                     responseJson.put("id", mRequestId);
                     responseJson.put("headers", getJSONHeaders(response.getHeaders()));
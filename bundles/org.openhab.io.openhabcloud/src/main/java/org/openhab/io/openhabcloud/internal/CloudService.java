@@ -82,6 +82,7 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
     private static final String CFG_EXPOSE = "expose";
     private static final String CFG_BASE_URL = "baseURL";
     private static final String CFG_MODE = "mode";
+    private static final String CFG_ITEM_UPDATE_INTERVAL = "itemUpdateInterval";
     private static final String SECRET_FILE_NAME = "openhabcloud" + File.separator + "secret";
     private static final String DEFAULT_URL = "https://myopenhab.org/";
     private static final int DEFAULT_LOCAL_OPENHAB_MAX_CONCURRENT_REQUESTS = 200;
@@ -99,6 +100,7 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
 
     private boolean remoteAccessEnabled = true;
     private Set<String> exposedItems = null;
+    private int itemUpdateInterval = 0;
     private int localPort;
 
     public CloudService() {
@@ -218,6 +220,20 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
             }
         }
 
+        Object intervalCfg = config.get(CFG_ITEM_UPDATE_INTERVAL);
+        if (intervalCfg instanceof Number) {
+            itemUpdateInterval = ((Number) intervalCfg).intValue();
+        } else if (intervalCfg instanceof String && !((String) intervalCfg).trim().isEmpty()) {
+            try {
+                itemUpdateInterval = Integer.parseInt(((String) intervalCfg).trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid item update interval '{}', sending item updates immediately", intervalCfg);
+                itemUpdateInterval = 0;
+            }
+        } else {
+            itemUpdateInterval = 0;
+        }
+
         logger.debug("UUID = {}, secret = {}", InstanceUUID.get(), getSecret());
 
         if (cloudClient != null) {
@@ -239,6 +255,8 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
         cloudClient = new CloudClient(httpClient, InstanceUUID.get(), getSecret(), cloudBaseUrl, localBaseUrl,
                 remoteAccessEnabled, exposedItems);
         cloudClient.setOpenHABVersion(OpenHAB.getVersion());
+        cloudClient.setItemUpdateInterval(itemUpdateInterval);
+        cloudClient.setMaxConcurrentRequests(DEFAULT_LOCAL_OPENHAB_MAX_CONCURRENT_REQUESTS);
         cloudClient.connect();
         cloudClient.setListener(this);
         NotificationAction.cloudService = this;
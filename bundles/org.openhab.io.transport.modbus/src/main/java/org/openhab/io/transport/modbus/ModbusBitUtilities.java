@@ -101,14 +101,7 @@ public class ModbusBitUtilities {
      */
     public static Optional<DecimalType> extractStateFromRegisters(ModbusRegisterArray registers, int index,
             ModbusConstants.ValueType type) {
-        int endBitIndex = (type.getBits() >= 16 ? 16 * index : type.getBits() * index) + type.getBits() - 1;
-        // each register has 16 bits
-        int lastValidIndex = registers.size() * 16 - 1;
-        if (endBitIndex > lastValidIndex || index < 0) {
-            throw new IllegalArgumentException(
-                    String.format("Index=%d with type=%s is out-of-bounds given registers of size %d", index, type,
-                            registers.size()));
-        }
+        checkIndex(registers, index, type);
         switch (type) {
             case BIT:
                 return Optional
@@ -212,6 +205,179 @@ public class ModbusBitUtilities {
         }
     }
 
+    /**
+     * Read integer data from registers without intermediate objects
+     *
+     * Interpretation of <tt>index</tt> and <tt>type</tt> is the same as with
+     * {@link #extractStateFromRegisters(ModbusRegisterArray, int, ModbusConstants.ValueType)}.
+     *
+     * UINT64 and UINT64_SWAP values greater than {@link Long#MAX_VALUE} are returned as negative numbers, i.e. the
+     * returned long has the same 64 bits as the unsigned value. Use {@link Long#toUnsignedString(long)} and similar
+     * to interpret them.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param index zero based item index
+     * @param type item type, integer types only
+     * @return value read
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers, or with floating point types
+     */
+    public static long extractLongFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
+        checkIndex(registers, index, type);
+        if (type == ModbusConstants.ValueType.FLOAT32 || type == ModbusConstants.ValueType.FLOAT32_SWAP) {
+            throw new IllegalArgumentException(
+                    String.format("Type %s is not an integer type", type.getConfigValue()));
+        }
+        return extractBits(registers, index, type);
+    }
+
+    /**
+     * Read data from registers and convert the result to double, without intermediate objects
+     *
+     * Interpretation of <tt>index</tt> and <tt>type</tt> is the same as with
+     * {@link #extractStateFromRegisters(ModbusRegisterArray, int, ModbusConstants.ValueType)}.
+     *
+     * Unlike with <tt>extractStateFromRegisters</tt>, floating point NaN and infinity are returned as such. 64 bit
+     * integers with more than 53 significant bits are rounded to the nearest double.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param index zero based item index
+     * @param type item type
+     * @return value read
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers
+     */
+    public static double extractDoubleFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
+        checkIndex(registers, index, type);
+        long bits = extractBits(registers, index, type);
+        switch (type) {
+            case FLOAT32:
+            case FLOAT32_SWAP:
+                return Float.intBitsToFloat((int) bits);
+            case UINT64:
+            case UINT64_SWAP:
+                if (bits >= 0) {
+                    return bits;
+                }
+                // halve to fit signed long, keeping the lowest bit for correct rounding
+                return ((bits >>> 1) | (bits & 1)) * 2.0;
+            default:
+                return bits;
+        }
+    }
+
+    /**
+     * Read several integer values from registers at once
+     *
+     * Value <tt>i</tt> is read from <tt>indices[i]</tt> with <tt>types[i]</tt>, and stored to
+     * <tt>destination[i]</tt>. See {@link #extractLongFromRegisters(ModbusRegisterArray, int,
+     * ModbusConstants.ValueType)} for details. No objects are allocated, so the same arrays can be re-used with
+     * every poll.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param indices zero based item indices
+     * @param types item types, integer types only
+     * @param destination array for the values read
+     * @throws IllegalArgumentException when the array lengths do not match, when some index is out of bounds of
+     *             registers, or with floating point types
+     */
+    public static void extractLongsFromRegisters(ModbusRegisterArray registers, int[] indices,
+            ModbusConstants.ValueType[] types, long[] destination) {
+        checkLengths(indices, types, destination.length);
+        for (int i = 0; i < indices.length; i++) {
+            destination[i] = extractLongFromRegisters(registers, indices[i], types[i]);
+        }
+    }
+
+    /**
+     * Read several values from registers at once, converting them to double
+     *
+     * Value <tt>i</tt> is read from <tt>indices[i]</tt> with <tt>types[i]</tt>, and stored to
+     * <tt>destination[i]</tt>. See {@link #extractDoubleFromRegisters(ModbusRegisterArray, int,
+     * ModbusConstants.ValueType)} for details. No objects are allocated, so the same arrays can be re-used with
+     * every poll.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param indices zero based item indices
+     * @param types item types
+     * @param destination array for the values read
+     * @throws IllegalArgumentException when the array lengths do not match, or when some index is out of bounds of
+     *             registers
+     */
+    public static void extractDoublesFromRegisters(ModbusRegisterArray registers, int[] indices,
+            ModbusConstants.ValueType[] types, double[] destination) {
+        checkLengths(indices, types, destination.length);
+        for (int i = 0; i < indices.length; i++) {
+            destination[i] = extractDoubleFromRegisters(registers, indices[i], types[i]);
+        }
+    }
+
+    private static void checkIndex(ModbusRegisterArray registers, int index, ModbusConstants.ValueType type) {
+        int endBitIndex = (type.getBits() >= 16 ? 16 * index : type.getBits() * index) + type.getBits() - 1;
+        // each register has 16 bits
+        int lastValidIndex = registers.size() * 16 - 1;
+        if (endBitIndex > lastValidIndex || index < 0) {
+            throw new IllegalArgumentException(
+                    String.format("Index=%d with type=%s is out-of-bounds given registers of size %d", index, type,
+                            registers.size()));
+        }
+    }
+
+    private static void checkLengths(int[] indices, ModbusConstants.ValueType[] types, int destinationLength) {
+        if (indices.length != types.length || destinationLength < indices.length) {
+            throw new IllegalArgumentException(
+                    String.format("Got %d indices and %d types, with room for %d values", indices.length,
+                            types.length, destinationLength));
+        }
+    }
+
+    /**
+     * Read the bits of the value. Signed integers are sign extended, unsigned ones zero extended, and floats are
+     * returned as raw IEEE 754 bits in the lower 32 bits.
+     */
+    private static long extractBits(ModbusRegisterArray registers, int index, ModbusConstants.ValueType type) {
+        switch (type) {
+            case BIT:
+                return (registers.getRegister(index / 16).toUnsignedShort() >> (index % 16)) & 1;
+            case INT8:
+                return (byte) (registers.getRegister(index / 2).toUnsignedShort() >> (8 * (index % 2)));
+            case UINT8:
+                return (registers.getRegister(index / 2).toUnsignedShort() >> (8 * (index % 2))) & 0xff;
+            case INT16:
+                return (short) registers.getRegister(index).toUnsignedShort();
+            case UINT16:
+                return registers.getRegister(index).toUnsignedShort();
+            case INT32:
+                return (int) registersToLong(registers, index, index + 1);
+            case UINT32:
+            case FLOAT32:
+                return registersToLong(registers, index, index + 1);
+            case INT32_SWAP:
+                return (int) registersToLong(registers, index + 1, index);
+            case UINT32_SWAP:
+            case FLOAT32_SWAP:
+                return registersToLong(registers, index + 1, index);
+            case INT64:
+            case UINT64:
+                return registersToLong(registers, index, index + 1) << 32 | registersToLong(registers, index + 2,
+                        index + 3);
+            case INT64_SWAP:
+            case UINT64_SWAP:
+                return registersToLong(registers, index + 3, index + 2) << 32 | registersToLong(registers, index + 1,
+                        index);
+            default:
+                throw new IllegalArgumentException(type.getConfigValue());
+        }
+    }
+
+    /**
+     * Combine two registers to unsigned 32 bit value
+     */
+    private static long registersToLong(ModbusRegisterArray registers, int highIndex, int lowIndex) {
+        return ((long) registers.getRegister(highIndex).toUnsignedShort() << 16)
+                | registers.getRegister(lowIndex).toUnsignedShort();
+    }
+
     /**
      * Read data from registers and convert the result to StringType
      * Strings should start the the first byte of a register, but could
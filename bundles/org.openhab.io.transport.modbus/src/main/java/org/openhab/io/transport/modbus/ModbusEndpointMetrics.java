@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+/**
+ * Performance metrics of the operations of single endpoint
+ *
+ * Operation times are split to the same phases as in the debug log of the operations: total time, time spent
+ * with connections (borrowing, connecting, invalidating), time spent in transactions with the slave, and time spent
+ * calling the callbacks.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public interface ModbusEndpointMetrics {
+
+    public ModbusSlaveEndpoint getEndpoint();
+
+    /**
+     * @return number of operations executed, including the failed ones
+     */
+    public long getOperations();
+
+    /**
+     * @return number of operations that failed after all tries
+     */
+    public long getFailedOperations();
+
+    /**
+     * @return number of retried transactions
+     */
+    public long getRetries();
+
+    /**
+     * @return number of connections invalidated due to errors
+     */
+    public long getInvalidatedConnections();
+
+    /**
+     * @return number of transactions that timed out
+     */
+    public long getTimeouts();
+
+    /**
+     * @return total time of the operations
+     */
+    public ModbusLatencyHistogram getTotalTime();
+
+    /**
+     * @return time spent with connections
+     */
+    public ModbusLatencyHistogram getConnectionTime();
+
+    /**
+     * @return time spent in transactions with the slave
+     */
+    public ModbusLatencyHistogram getTransactionTime();
+
+    /**
+     * @return time spent in callbacks
+     */
+    public ModbusLatencyHistogram getCallbackTime();
+
+    /**
+     * @return time the operations waited in the queue of the endpoint before execution
+     */
+    public ModbusLatencyHistogram getQueueWaitTime();
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Distribution of recorded durations
+ *
+ * Durations are recorded with limited precision: percentiles are accurate to within a few percent.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public interface ModbusLatencyHistogram {
+
+    /**
+     * @return number of recorded durations
+     */
+    public long getCount();
+
+    /**
+     * @return average of recorded durations, in milliseconds. Zero if nothing has been recorded.
+     */
+    public double getMeanMillis();
+
+    /**
+     * @return longest recorded duration, in milliseconds. Zero if nothing has been recorded.
+     */
+    public long getMaxMillis();
+
+    /**
+     * Get duration below which the given percentage of recorded durations fall
+     *
+     * @param percentile percentile between 0 and 100, e.g. 99 for 99th percentile
+     * @return duration in milliseconds. Zero if nothing has been recorded.
+     */
+    public long getPercentileMillis(double percentile);
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus;
+
+import java.util.Collection;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Performance metrics of Modbus operations, collected per endpoint
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public interface ModbusMetrics {
+
+    /**
+     * Get metrics of all endpoints that have been communicated with since startup or last reset
+     *
+     * @return metrics per endpoint
+     */
+    public Collection<ModbusEndpointMetrics> getEndpointMetrics();
+
+    /**
+     * Clear all collected metrics
+     */
+    public void resetMetrics();
+}
@@ -61,6 +61,13 @@ public class EndpointPoolConfiguration {
      */
     private int connectTimeoutMillis;
 
+    /**
+     * How many transactions can be sent to the endpoint without waiting for the responses. Only supported with tcp
+     * endpoints. One means that transactions are executed one at a time (default). With values above one, all
+     * transactions share a single connection, and the inter transaction delay is not applied.
+     */
+    private int maxTransactionsInFlight = 1;
+
     private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
 
     static {
@@ -107,10 +114,19 @@ public class EndpointPoolConfiguration {
         this.connectTimeoutMillis = connectTimeoutMillis;
     }
 
+    public int getMaxTransactionsInFlight() {
+        return maxTransactionsInFlight;
+    }
+
+    public void setMaxTransactionsInFlight(int maxTransactionsInFlight) {
+        this.maxTransactionsInFlight = maxTransactionsInFlight;
+    }
+
     @Override
     public int hashCode() {
         return new HashCodeBuilder(2149, 3117).append(interTransactionDelayMillis).append(interConnectDelayMillis)
-                .append(connectMaxTries).append(reconnectAfterMillis).append(connectTimeoutMillis).toHashCode();
+                .append(connectMaxTries).append(reconnectAfterMillis).append(connectTimeoutMillis)
+                .append(maxTransactionsInFlight).toHashCode();
     }
 
     @Override
@@ -119,7 +135,8 @@ public class EndpointPoolConfiguration {
                 .append("interTransactionDelayMillis", interTransactionDelayMillis)
                 .append("interConnectDelayMillis", interConnectDelayMillis).append("connectMaxTries", connectMaxTries)
                 .append("reconnectAfterMillis", reconnectAfterMillis)
-                .append("connectTimeoutMillis", connectTimeoutMillis).toString();
+                .append("connectTimeoutMillis", connectTimeoutMillis)
+                .append("maxTransactionsInFlight", maxTransactionsInFlight).toString();
     }
 
     @Override
@@ -137,6 +154,7 @@ public class EndpointPoolConfiguration {
         return new EqualsBuilder().append(interTransactionDelayMillis, rhs.interTransactionDelayMillis)
                 .append(interConnectDelayMillis, rhs.interConnectDelayMillis)
                 .append(connectMaxTries, rhs.connectMaxTries).append(reconnectAfterMillis, rhs.reconnectAfterMillis)
-                .append(connectTimeoutMillis, rhs.connectTimeoutMillis).isEquals();
+                .append(connectTimeoutMillis, rhs.connectTimeoutMillis)
+                .append(maxTransactionsInFlight, rhs.maxTransactionsInFlight).isEquals();
     }
 }
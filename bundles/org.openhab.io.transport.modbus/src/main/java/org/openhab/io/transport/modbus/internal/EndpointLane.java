@@ -0,0 +1,324 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queue of operations of single endpoint
+ *
+ * Operations are executed using a shared executor, but at most <code>maxConcurrency</code> at a time per endpoint.
+ * Thus a slow or unresponsive endpoint can only occupy a limited number of threads, while operations of other
+ * endpoints are executed normally. After each operation the lane gives its thread back to the executor, so that lanes
+ * of different endpoints take turns.
+ *
+ * Writes are executed before polls. A poll is queued at most once: when the same poll is submitted while previous
+ * one is still waiting, the previous one is dropped as stale. This is expected when polling takes longer than the
+ * poll period, thus stale polls are only counted and notified with {@link Operation#superseded()}. The number of
+ * queued operations is bounded.
+ *
+ * Operations dropped from the queue without being executed, since the queue is full or the executor rejected them,
+ * are notified with {@link Operation#dropped(Exception)}. Both notifications happen outside of the lock of the lane.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class EndpointLane {
+
+    /**
+     * Operation queued to the lane
+     */
+    public interface Operation extends Runnable {
+
+        /**
+         * Called when the operation is dropped from the queue without being executed, either to make room for other
+         * operations or because the executor rejected it
+         *
+         * @param cause reason for dropping the operation
+         */
+        void dropped(Exception cause);
+
+        /**
+         * Called when the operation is dropped from the queue without being executed because a newer execution of the
+         * same poll replaced it. This is not an error.
+         */
+        void superseded();
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(EndpointLane.class);
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final Executor executor;
+    private final int maxQueueSize;
+
+    private final Object lock = new Object();
+    private final Deque<Operation> writes = new ArrayDeque<>();
+    private final Map<Object, Operation> polls = new LinkedHashMap<>();
+    private final List<Operation> rejectedByExecutor = new ArrayList<>();
+    private int maxConcurrency;
+    private int running;
+    private long droppedStalePolls;
+    private long rejected;
+
+    /**
+     * @param endpoint endpoint of the operations, for logging
+     * @param executor executor running the operations
+     * @param maxQueueSize maximum number of queued operations
+     * @param maxConcurrency maximum number of operations executed at the same time
+     */
+    public EndpointLane(ModbusSlaveEndpoint endpoint, Executor executor, int maxQueueSize, int maxConcurrency) {
+        this.endpoint = endpoint;
+        this.executor = executor;
+        this.maxQueueSize = maxQueueSize;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    /**
+     * Queue a write. If the queue is full, the oldest queued poll is dropped to make room for the write.
+     *
+     * @param write operation to execute
+     * @return whether the operation was queued. False if the queue is full of writes
+     */
+    public boolean submitWrite(Operation write) {
+        Operation dropped = null;
+        synchronized (lock) {
+            if (size() >= maxQueueSize) {
+                Iterator<Operation> oldestPoll = polls.values().iterator();
+                if (!oldestPoll.hasNext()) {
+                    rejected++;
+                    return false;
+                }
+                dropped = oldestPoll.next();
+                oldestPoll.remove();
+                rejected++;
+                logger.warn("Queue of endpoint {} is full, dropping oldest poll in favor of a write", endpoint);
+            }
+            writes.add(write);
+            startWorkers();
+        }
+        notifyRejectedByExecutor();
+        if (dropped != null) {
+            dropped.dropped(new IllegalStateException(
+                    String.format("Too many queued operations for endpoint %s, poll dropped in favor of a write",
+                            endpoint)));
+        }
+        return true;
+    }
+
+    /**
+     * Queue a poll, replacing the previous one with the same key if it has not been executed yet
+     *
+     * @param key identifies the poll, typically the poll task
+     * @param poll operation to execute
+     * @return whether the operation was queued. False if the queue is full
+     */
+    public boolean submitPoll(Object key, Operation poll) {
+        Operation stale;
+        synchronized (lock) {
+            stale = polls.remove(key);
+            if (stale != null) {
+                droppedStalePolls++;
+                logger.debug("Dropping stale poll {} of endpoint {}, newer one was submitted", key, endpoint);
+            } else if (size() >= maxQueueSize) {
+                rejected++;
+                return false;
+            }
+            polls.put(key, poll);
+            startWorkers();
+        }
+        notifyRejectedByExecutor();
+        if (stale != null) {
+            stale.superseded();
+        }
+        return true;
+    }
+
+    /**
+     * Remove queued poll
+     *
+     * @param key identifies the poll
+     */
+    public void removePoll(Object key) {
+        synchronized (lock) {
+            polls.remove(key);
+        }
+    }
+
+    /**
+     * Remove queued operation, e.g. when the operation is cancelled before it has been executed
+     *
+     * @param operation operation to remove
+     * @return whether the operation was still queued
+     */
+    public boolean remove(Operation operation) {
+        synchronized (lock) {
+            return writes.remove(operation) || polls.values().remove(operation);
+        }
+    }
+
+    /**
+     * Remove all queued operations. Operations being executed are not interrupted.
+     */
+    public void clear() {
+        synchronized (lock) {
+            writes.clear();
+            polls.clear();
+        }
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        synchronized (lock) {
+            this.maxConcurrency = Math.max(1, maxConcurrency);
+            startWorkers();
+        }
+        notifyRejectedByExecutor();
+    }
+
+    /**
+     * @return number of polls dropped since a newer execution of the same poll was submitted
+     */
+    public long getDroppedStalePolls() {
+        synchronized (lock) {
+            return droppedStalePolls;
+        }
+    }
+
+    /**
+     * @return number of queued operations, not including the ones being executed
+     */
+    public int getQueueSize() {
+        synchronized (lock) {
+            return size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return "EndpointLane [endpoint=" + endpoint + ", writes=" + writes.size() + ", polls=" + polls.size()
+                    + ", running=" + running + ", droppedStalePolls=" + droppedStalePolls + ", rejected=" + rejected
+                    + "]";
+        }
+    }
+
+    /**
+     * Notify operations dropped since the executor rejected them. Called without the lock, since the callbacks
+     * might submit new operations.
+     */
+    private void notifyRejectedByExecutor() {
+        List<Operation> dropped;
+        synchronized (lock) {
+            if (rejectedByExecutor.isEmpty()) {
+                return;
+            }
+            dropped = new ArrayList<>(rejectedByExecutor);
+            rejectedByExecutor.clear();
+        }
+        for (Operation operation : dropped) {
+            operation.dropped(new RejectedExecutionException(
+                    String.format("Executor rejected operations of endpoint %s", endpoint)));
+        }
+    }
+
+    private int size() {
+        return writes.size() + polls.size();
+    }
+
+    private @Nullable Operation next() {
+        Operation write = writes.poll();
+        if (write != null) {
+            return write;
+        }
+        Iterator<Operation> iterator = polls.values().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        Operation poll = iterator.next();
+        iterator.remove();
+        return poll;
+    }
+
+    /**
+     * Start workers for queued operations, up to the concurrency limit. Called with the lock held.
+     */
+    private void startWorkers() {
+        while (running < Math.min(maxConcurrency, size())) {
+            running++;
+            if (!schedule()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Hand the worker to the executor. Called with the lock held.
+     *
+     * @return whether the worker was scheduled
+     */
+    private boolean schedule() {
+        try {
+            executor.execute(this::runOne);
+            return true;
+        } catch (RejectedExecutionException e) {
+            running--;
+            logger.warn("Executor rejected operations of endpoint {}, dropping {} queued operations", endpoint,
+                    size());
+            rejectedByExecutor.addAll(writes);
+            rejectedByExecutor.addAll(polls.values());
+            writes.clear();
+            polls.clear();
+            return false;
+        }
+    }
+
+    private void runOne() {
+        Operation operation;
+        synchronized (lock) {
+            operation = next();
+            if (operation == null) {
+                running--;
+                return;
+            }
+        }
+        try {
+            operation.run();
+        } catch (RuntimeException e) {
+            logger.warn("Operation of endpoint {} failed unexpectedly", endpoint, e);
+        } finally {
+            synchronized (lock) {
+                if (size() > 0 && running <= maxConcurrency) {
+                    // give other endpoints a turn before executing the next operation
+                    schedule();
+                } else {
+                    running--;
+                }
+            }
+            notifyRejectedByExecutor();
+        }
+    }
+}
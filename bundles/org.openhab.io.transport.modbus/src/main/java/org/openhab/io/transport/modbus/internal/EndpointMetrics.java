@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.ModbusEndpointMetrics;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+/**
+ * Metrics of single endpoint, updated by {@link ModbusManagerImpl} as operations are executed
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class EndpointMetrics implements ModbusEndpointMetrics {
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder failedOperations = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder invalidatedConnections = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LatencyHistogram totalTime = new LatencyHistogram();
+    private final LatencyHistogram connectionTime = new LatencyHistogram();
+    private final LatencyHistogram transactionTime = new LatencyHistogram();
+    private final LatencyHistogram callbackTime = new LatencyHistogram();
+    private final LatencyHistogram queueWaitTime = new LatencyHistogram();
+
+    public EndpointMetrics(ModbusSlaveEndpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Record finished operation
+     *
+     * @param timer timing of the operation, with all stop watches suspended
+     * @param tries number of transactions tried
+     * @param failed whether the operation failed after all tries
+     */
+    public void recordOperation(AggregateStopWatch timer, int tries, boolean failed) {
+        operations.increment();
+        if (failed) {
+            failedOperations.increment();
+        }
+        if (tries > 1) {
+            retries.add(tries - 1);
+        }
+        totalTime.record(timer.total.getTotalTimeMillis());
+        connectionTime.record(timer.connection.getTotalTimeMillis());
+        transactionTime.record(timer.transaction.getTotalTimeMillis());
+        callbackTime.record(timer.callback.getTotalTimeMillis());
+    }
+
+    public void recordInvalidatedConnection() {
+        invalidatedConnections.increment();
+    }
+
+    public void recordTimeout() {
+        timeouts.increment();
+    }
+
+    public void recordQueueWait(long millis) {
+        queueWaitTime.record(millis);
+    }
+
+    @Override
+    public ModbusSlaveEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    @Override
+    public long getOperations() {
+        return operations.sum();
+    }
+
+    @Override
+    public long getFailedOperations() {
+        return failedOperations.sum();
+    }
+
+    @Override
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    @Override
+    public long getInvalidatedConnections() {
+        return invalidatedConnections.sum();
+    }
+
+    @Override
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public LatencyHistogram getTotalTime() {
+        return totalTime;
+    }
+
+    @Override
+    public LatencyHistogram getConnectionTime() {
+        return connectionTime;
+    }
+
+    @Override
+    public LatencyHistogram getTransactionTime() {
+        return transactionTime;
+    }
+
+    @Override
+    public LatencyHistogram getCallbackTime() {
+        return callbackTime;
+    }
+
+    @Override
+    public LatencyHistogram getQueueWaitTime() {
+        return queueWaitTime;
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointMetrics [endpoint=" + endpoint + ", operations=" + getOperations() + ", failedOperations="
+                + getFailedOperations() + ", retries=" + getRetries() + ", invalidatedConnections="
+                + getInvalidatedConnections() + ", timeouts=" + getTimeouts() + "]";
+    }
+}
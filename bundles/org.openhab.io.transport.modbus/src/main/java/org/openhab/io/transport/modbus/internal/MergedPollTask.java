@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.BasicBitArray;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegister;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Poll task reading a single block which covers the requests of several other poll tasks
+ *
+ * The data of the block read is split back to the callbacks of the original tasks. Errors are passed to all of them.
+ * Exceptions thrown by the callback of one task do not prevent calling the callbacks of the other tasks.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class MergedPollTask implements PollTask, ModbusReadCallback {
+
+    /**
+     * Maximum number of registers in single read request, as defined by the Modbus specification
+     */
+    public static final int MAX_REGISTERS_PER_READ = 125;
+
+    /**
+     * Maximum number of coils or discrete inputs in single read request, as defined by the Modbus specification
+     */
+    public static final int MAX_BITS_PER_READ = 2000;
+
+    private final Logger logger = LoggerFactory.getLogger(MergedPollTask.class);
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final ModbusReadRequestBlueprint request;
+    private final List<PollTask> tasks;
+    private final Predicate<PollTask> isRegistered;
+
+    private MergedPollTask(ModbusReadRequestBlueprint request, List<PollTask> tasks,
+            Predicate<PollTask> isRegistered) {
+        this.endpoint = tasks.get(0).getEndpoint();
+        this.request = request;
+        this.tasks = Collections.unmodifiableList(tasks);
+        this.isRegistered = isRegistered;
+    }
+
+    /**
+     * Combine compatible poll tasks to as few reads as possible
+     *
+     * Tasks are compatible if they have the same endpoint, unit ID, protocol ID and function code. Compatible tasks
+     * are merged if the gap between their data is at most <code>maxGap</code> items, and the combined read does not
+     * exceed the maximum length of single read.
+     *
+     * @param tasks poll tasks to combine
+     * @param maxGap maximum number of unrequested registers or bits between two merged tasks
+     * @param isRegistered tells whether a task is still registered when data is received. Data is not passed to
+     *            unregistered tasks
+     * @return poll tasks to execute, either the original ones or {@link MergedPollTask} replacing several of them
+     */
+    public static List<PollTask> merge(Collection<PollTask> tasks, int maxGap, Predicate<PollTask> isRegistered) {
+        Map<List<Object>, List<PollTask>> compatibleTasks = new LinkedHashMap<>();
+        for (PollTask task : tasks) {
+            ModbusReadRequestBlueprint taskRequest = task.getRequest();
+            List<Object> key = new ArrayList<>(4);
+            key.add(task.getEndpoint());
+            key.add(taskRequest.getUnitID());
+            key.add(taskRequest.getProtocolID());
+            key.add(taskRequest.getFunctionCode());
+            compatibleTasks.computeIfAbsent(key, k -> new ArrayList<>()).add(task);
+        }
+
+        List<PollTask> merged = new ArrayList<>(tasks.size());
+        for (List<PollTask> candidates : compatibleTasks.values()) {
+            candidates.sort(Comparator.comparingInt((PollTask task) -> task.getRequest().getReference())
+                    .thenComparingInt(task -> task.getRequest().getDataLength()));
+            int maxLength = isRegisterRead(candidates.get(0).getRequest().getFunctionCode()) ? MAX_REGISTERS_PER_READ
+                    : MAX_BITS_PER_READ;
+
+            List<PollTask> block = new ArrayList<>();
+            int blockStart = 0;
+            int blockEnd = 0;
+            for (PollTask task : candidates) {
+                int start = task.getRequest().getReference();
+                int end = start + task.getRequest().getDataLength();
+                if (!block.isEmpty() && start - blockEnd <= maxGap
+                        && Math.max(blockEnd, end) - blockStart <= maxLength) {
+                    block.add(task);
+                    blockEnd = Math.max(blockEnd, end);
+                    continue;
+                }
+                if (!block.isEmpty()) {
+                    merged.add(createBlockTask(block, blockStart, blockEnd, isRegistered));
+                }
+                block = new ArrayList<>();
+                block.add(task);
+                blockStart = start;
+                blockEnd = end;
+            }
+            if (!block.isEmpty()) {
+                merged.add(createBlockTask(block, blockStart, blockEnd, isRegistered));
+            }
+        }
+        return merged;
+    }
+
+    private static PollTask createBlockTask(List<PollTask> block, int start, int end,
+            Predicate<PollTask> isRegistered) {
+        if (block.size() == 1) {
+            return block.get(0);
+        }
+        ModbusReadRequestBlueprint first = block.get(0).getRequest();
+        int maxTries = block.stream().mapToInt(task -> task.getRequest().getMaxTries()).max().orElse(1);
+        BasicModbusReadRequestBlueprint request = new BasicModbusReadRequestBlueprint(first.getUnitID(),
+                first.getFunctionCode(), start, end - start, maxTries);
+        return new MergedPollTask(request, block, isRegistered);
+    }
+
+    private static boolean isRegisterRead(ModbusReadFunctionCode functionCode) {
+        return functionCode == ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS
+                || functionCode == ModbusReadFunctionCode.READ_INPUT_REGISTERS;
+    }
+
+    /**
+     * Get the poll tasks replaced by this task
+     *
+     * @return original poll tasks
+     */
+    public List<PollTask> getTasks() {
+        return tasks;
+    }
+
+    @Override
+    public ModbusReadRequestBlueprint getRequest() {
+        return request;
+    }
+
+    @Override
+    public ModbusSlaveEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    @Override
+    public @Nullable ModbusReadCallback getCallback() {
+        return this;
+    }
+
+    @Override
+    public void onRegisters(ModbusReadRequestBlueprint mergedRequest, ModbusRegisterArray registers) {
+        for (PollTask task : tasks) {
+            ModbusReadCallback callback = task.getCallback();
+            if (callback == null || !isRegistered.test(task)) {
+                continue;
+            }
+            ModbusReadRequestBlueprint taskRequest = task.getRequest();
+            int offset = taskRequest.getReference() - request.getReference();
+            ModbusRegister[] taskRegisters = new ModbusRegister[taskRequest.getDataLength()];
+            for (int i = 0; i < taskRegisters.length; i++) {
+                taskRegisters[i] = registers.getRegister(offset + i);
+            }
+            try {
+                callback.onRegisters(taskRequest, new BasicModbusRegisterArray(taskRegisters));
+            } catch (RuntimeException e) {
+                logger.warn("Callback {} of merged poll task {} failed unexpectedly", callback, task, e);
+            }
+        }
+    }
+
+    @Override
+    public void onBits(ModbusReadRequestBlueprint mergedRequest, BitArray bits) {
+        for (PollTask task : tasks) {
+            ModbusReadCallback callback = task.getCallback();
+            if (callback == null || !isRegistered.test(task)) {
+                continue;
+            }
+            ModbusReadRequestBlueprint taskRequest = task.getRequest();
+            int offset = taskRequest.getReference() - request.getReference();
+            BasicBitArray taskBits = new BasicBitArray(taskRequest.getDataLength());
+            for (int i = 0; i < taskBits.size(); i++) {
+                taskBits.setBit(i, bits.getBit(offset + i));
+            }
+            try {
+                callback.onBits(taskRequest, taskBits);
+            } catch (RuntimeException e) {
+                logger.warn("Callback {} of merged poll task {} failed unexpectedly", callback, task, e);
+            }
+        }
+    }
+
+    @Override
+    public void onError(ModbusReadRequestBlueprint mergedRequest, Exception error) {
+        for (PollTask task : tasks) {
+            ModbusReadCallback callback = task.getCallback();
+            if (callback == null || !isRegistered.test(task)) {
+                continue;
+            }
+            try {
+                callback.onError(task.getRequest(), error);
+            } catch (RuntimeException e) {
+                logger.warn("Callback {} of merged poll task {} failed unexpectedly", callback, task, e);
+            }
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(request, endpoint, tasks);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        MergedPollTask rhs = (MergedPollTask) obj;
+        return request.equals(rhs.request) && endpoint.equals(rhs.endpoint) && tasks.equals(rhs.tasks);
+    }
+
+    @Override
+    public String toString() {
+        return "MergedPollTask [request=" + request + ", endpoint=" + endpoint + ", tasks=" + tasks.size() + "]";
+    }
+}
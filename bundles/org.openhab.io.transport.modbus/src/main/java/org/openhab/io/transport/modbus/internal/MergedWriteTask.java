@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.BasicBitArray;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BasicModbusWriteCoilRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusWriteRegisterRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegister;
+import org.openhab.io.transport.modbus.ModbusResponse;
+import org.openhab.io.transport.modbus.ModbusWriteCallback;
+import org.openhab.io.transport.modbus.ModbusWriteCoilRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusWriteRegisterRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusWriteRequestBlueprint;
+import org.openhab.io.transport.modbus.WriteTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write task writing several single coil or single register writes to contiguous addresses with one request
+ *
+ * Coils are written with function code 15 (write multiple coils), and registers with function code 16 (write
+ * multiple registers). The response, or the error, is passed to the callbacks of all the original tasks. Exceptions
+ * thrown by the callback of one task do not prevent calling the callbacks of the other tasks.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class MergedWriteTask implements WriteTask, ModbusWriteCallback {
+
+    /**
+     * Maximum number of coils in single write multiple coils request, as defined by the Modbus specification
+     */
+    public static final int MAX_COILS_PER_WRITE = 1968;
+
+    /**
+     * Maximum number of registers in single write multiple registers request, as defined by the Modbus specification
+     */
+    public static final int MAX_REGISTERS_PER_WRITE = 123;
+
+    private final Logger logger = LoggerFactory.getLogger(MergedWriteTask.class);
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final ModbusWriteRequestBlueprint request;
+    private final List<WriteTask> tasks;
+
+    private MergedWriteTask(ModbusWriteRequestBlueprint request, List<WriteTask> tasks) {
+        this.endpoint = tasks.get(0).getEndpoint();
+        this.request = request;
+        this.tasks = Collections.unmodifiableList(tasks);
+    }
+
+    /**
+     * Whether the task writes single coil or single register, and can thus be merged with other tasks
+     *
+     * @param task write task
+     * @return whether task can be merged
+     */
+    public static boolean isMergeable(WriteTask task) {
+        ModbusWriteRequestBlueprint taskRequest = task.getRequest();
+        if (taskRequest instanceof ModbusWriteCoilRequestBlueprint) {
+            return ((ModbusWriteCoilRequestBlueprint) taskRequest).getCoils().size() == 1;
+        } else if (taskRequest instanceof ModbusWriteRegisterRequestBlueprint) {
+            return ((ModbusWriteRegisterRequestBlueprint) taskRequest).getRegisters().size() == 1;
+        }
+        return false;
+    }
+
+    /**
+     * Get key identifying the tasks that can be merged together: tasks writing to the same endpoint, unit ID and
+     * data type (coils or registers)
+     *
+     * @param task mergeable write task
+     * @return key for grouping the task
+     */
+    public static List<Object> getMergeKey(WriteTask task) {
+        List<Object> key = new ArrayList<>(3);
+        key.add(task.getEndpoint());
+        key.add(task.getRequest().getUnitID());
+        key.add(task.getRequest() instanceof ModbusWriteCoilRequestBlueprint);
+        return key;
+    }
+
+    /**
+     * Combine mergeable write tasks to as few writes as possible, without changing the order of the writes
+     *
+     * Consecutive tasks with the same merge key, writing to ascending contiguous addresses, are merged up to the
+     * maximum length of single write. Tasks are never moved past each other, e.g. the tasks writing registers 2, 1
+     * and 2 are executed as three separate writes.
+     *
+     * @param tasks mergeable write tasks in submission order
+     * @return write tasks to execute in order, either the original ones or {@link MergedWriteTask} replacing several
+     *         consecutive ones
+     */
+    public static List<WriteTask> merge(Collection<WriteTask> tasks) {
+        List<WriteTask> merged = new ArrayList<>(tasks.size());
+        List<WriteTask> block = new ArrayList<>();
+        for (WriteTask task : tasks) {
+            if (!block.isEmpty() && !continuesBlock(block, task)) {
+                merged.add(createBlockTask(block));
+                block = new ArrayList<>();
+            }
+            block.add(task);
+        }
+        if (!block.isEmpty()) {
+            merged.add(createBlockTask(block));
+        }
+        return merged;
+    }
+
+    private static boolean continuesBlock(List<WriteTask> block, WriteTask task) {
+        WriteTask first = block.get(0);
+        int maxLength = first.getRequest() instanceof ModbusWriteCoilRequestBlueprint ? MAX_COILS_PER_WRITE
+                : MAX_REGISTERS_PER_WRITE;
+        return block.size() < maxLength && getMergeKey(first).equals(getMergeKey(task))
+                && task.getRequest().getReference() == first.getRequest().getReference() + block.size();
+    }
+
+    private static WriteTask createBlockTask(List<WriteTask> block) {
+        if (block.size() == 1) {
+            return block.get(0);
+        }
+        ModbusWriteRequestBlueprint first = block.get(0).getRequest();
+        int maxTries = block.stream().mapToInt(task -> task.getRequest().getMaxTries()).max().orElse(1);
+        ModbusWriteRequestBlueprint request;
+        if (first instanceof ModbusWriteCoilRequestBlueprint) {
+            BasicBitArray coils = new BasicBitArray(block.size());
+            for (int i = 0; i < block.size(); i++) {
+                coils.setBit(i, ((ModbusWriteCoilRequestBlueprint) block.get(i).getRequest()).getCoils().getBit(0));
+            }
+            request = new BasicModbusWriteCoilRequestBlueprint(first.getUnitID(), first.getReference(), coils, true,
+                    maxTries);
+        } else {
+            ModbusRegister[] registers = new ModbusRegister[block.size()];
+            for (int i = 0; i < block.size(); i++) {
+                registers[i] = ((ModbusWriteRegisterRequestBlueprint) block.get(i).getRequest()).getRegisters()
+                        .getRegister(0);
+            }
+            request = new BasicModbusWriteRegisterRequestBlueprint(first.getUnitID(), first.getReference(),
+                    new BasicModbusRegisterArray(registers), true, maxTries);
+        }
+        return new MergedWriteTask(request, block);
+    }
+
+    /**
+     * Get the write tasks replaced by this task
+     *
+     * @return original write tasks
+     */
+    public List<WriteTask> getTasks() {
+        return tasks;
+    }
+
+    @Override
+    public ModbusWriteRequestBlueprint getRequest() {
+        return request;
+    }
+
+    @Override
+    public ModbusSlaveEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    @Override
+    public @Nullable ModbusWriteCallback getCallback() {
+        return this;
+    }
+
+    @Override
+    public void onWriteResponse(ModbusWriteRequestBlueprint mergedRequest, ModbusResponse response) {
+        for (WriteTask task : tasks) {
+            ModbusWriteCallback callback = task.getCallback();
+            if (callback == null) {
+                continue;
+            }
+            try {
+                callback.onWriteResponse(task.getRequest(), response);
+            } catch (RuntimeException e) {
+                logger.warn("Callback {} of merged write task {} failed unexpectedly", callback, task, e);
+            }
+        }
+    }
+
+    @Override
+    public void onError(ModbusWriteRequestBlueprint mergedRequest, Exception error) {
+        for (WriteTask task : tasks) {
+            ModbusWriteCallback callback = task.getCallback();
+            if (callback == null) {
+                continue;
+            }
+            try {
+                callback.onError(task.getRequest(), error);
+            } catch (RuntimeException e) {
+                logger.warn("Callback {} of merged write task {} failed unexpectedly", callback, task, e);
+            }
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(request, endpoint, tasks);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        MergedWriteTask rhs = (MergedWriteTask) obj;
+        return request.equals(rhs.request) && endpoint.equals(rhs.endpoint) && tasks.equals(rhs.tasks);
+    }
+
+    @Override
+    public String toString() {
+        return "MergedWriteTask [request=" + request + ", endpoint=" + endpoint + ", tasks=" + tasks.size() + "]";
+    }
+}
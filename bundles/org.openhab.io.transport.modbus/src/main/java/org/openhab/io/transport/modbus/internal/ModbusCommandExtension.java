@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.io.console.Console;
+import org.eclipse.smarthome.io.console.extensions.AbstractConsoleCommandExtension;
+import org.eclipse.smarthome.io.console.extensions.ConsoleCommandExtension;
+import org.openhab.io.transport.modbus.ModbusEndpointMetrics;
+import org.openhab.io.transport.modbus.ModbusLatencyHistogram;
+import org.openhab.io.transport.modbus.ModbusMetrics;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * Console commands for inspecting the performance of Modbus communication
+ *
+ * @author agent - Initial contribution
+ */
+@Component(service = ConsoleCommandExtension.class)
+@NonNullByDefault
+public class ModbusCommandExtension extends AbstractConsoleCommandExtension {
+
+    private static final String SUBCMD_METRICS = "metrics";
+    private static final String SUBCMD_RESET_METRICS = "resetMetrics";
+
+    private final ModbusMetrics metrics;
+
+    @Activate
+    public ModbusCommandExtension(@Reference ModbusMetrics metrics) {
+        super("modbus", "Inspect Modbus communication.");
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void execute(String[] args, Console console) {
+        if (args.length == 0) {
+            printUsage(console);
+            return;
+        }
+        switch (args[0]) {
+            case SUBCMD_METRICS:
+                printMetrics(console);
+                break;
+            case SUBCMD_RESET_METRICS:
+                metrics.resetMetrics();
+                console.println("Metrics cleared");
+                break;
+            default:
+                console.println("Unknown command '" + args[0] + "'");
+                printUsage(console);
+                break;
+        }
+    }
+
+    @Override
+    public List<String> getUsages() {
+        return Arrays.asList(
+                buildCommandUsage(SUBCMD_METRICS,
+                        "print operation counts and latencies (in milliseconds) of each endpoint"),
+                buildCommandUsage(SUBCMD_RESET_METRICS, "clear collected metrics"));
+    }
+
+    private void printMetrics(Console console) {
+        List<ModbusEndpointMetrics> endpointMetrics = new ArrayList<>(metrics.getEndpointMetrics());
+        if (endpointMetrics.isEmpty()) {
+            console.println("No operations executed");
+            return;
+        }
+        endpointMetrics.sort(Comparator.comparing(m -> m.getEndpoint().toString()));
+        for (ModbusEndpointMetrics endpoint : endpointMetrics) {
+            console.println(endpoint.getEndpoint().toString());
+            console.println(String.format(
+                    "  operations=%d, failed=%d, retries=%d, invalidatedConnections=%d, timeouts=%d",
+                    endpoint.getOperations(), endpoint.getFailedOperations(), endpoint.getRetries(),
+                    endpoint.getInvalidatedConnections(), endpoint.getTimeouts()));
+            printHistogram(console, "total", endpoint.getTotalTime());
+            printHistogram(console, "queue wait", endpoint.getQueueWaitTime());
+            printHistogram(console, "connection", endpoint.getConnectionTime());
+            printHistogram(console, "transaction", endpoint.getTransactionTime());
+            printHistogram(console, "callback", endpoint.getCallbackTime());
+        }
+    }
+
+    private void printHistogram(Console console, String name, ModbusLatencyHistogram histogram) {
+        console.println(String.format("  %-12s count=%d, mean=%.1f, p50=%d, p90=%d, p99=%d, max=%d", name + ":",
+                histogram.getCount(), histogram.getMeanMillis(), histogram.getPercentileMillis(50),
+                histogram.getPercentileMillis(90), histogram.getPercentileMillis(99), histogram.getMaxMillis()));
+    }
+}
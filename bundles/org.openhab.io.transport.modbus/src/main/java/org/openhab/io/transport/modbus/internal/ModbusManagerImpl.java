@@ -13,18 +13,30 @@
 package org.openhab.io.transport.modbus.internal;
 
 import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import javax.imageio.IIOException;
 
@@ -37,8 +49,10 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.io.transport.modbus.ModbusCallback;
 import org.openhab.io.transport.modbus.ModbusConnectionException;
+import org.openhab.io.transport.modbus.ModbusEndpointMetrics;
 import org.openhab.io.transport.modbus.ModbusManager;
 import org.openhab.io.transport.modbus.ModbusManagerListener;
+import org.openhab.io.transport.modbus.ModbusMetrics;
 import org.openhab.io.transport.modbus.ModbusReadCallback;
 import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
 import org.openhab.io.transport.modbus.ModbusRequestBlueprint;
@@ -79,11 +93,14 @@ import net.wimpi.modbus.net.ModbusSlaveConnection;
  * important with serial slaves but practice has shown that even many tcp slaves have limited
  * capability to handle many connections at the same time
  *
+ * Timing of the operations is collected per endpoint, and exposed as {@link ModbusMetrics}.
+ *
  * @author Sami Salonen - Initial contribution
  */
-@Component(service = ModbusManager.class, immediate = true, configurationPid = "transport.modbus")
+@Component(service = { ModbusManager.class,
+        ModbusMetrics.class }, immediate = true, configurationPid = "transport.modbus")
 @NonNullByDefault
-public class ModbusManagerImpl implements ModbusManager {
+public class ModbusManagerImpl implements ModbusManager, ModbusMetrics {
 
     static class PollTaskUnregistered extends Exception {
         public PollTaskUnregistered(String msg) {
@@ -93,6 +110,20 @@ public class ModbusManagerImpl implements ModbusManager {
         private static final long serialVersionUID = 6939730579178506885L;
     }
 
+    @FunctionalInterface
+    private interface TransactionExecutor {
+
+        /**
+         * Send the request to the slave and wait for the response
+         *
+         * @param libRequest modbus request
+         * @return response from the slave
+         * @throws ModbusException on Modbus protocol errors (e.g. ModbusIOException on I/O, ModbusSlaveException on
+         *             slave exception responses)
+         */
+        public ModbusResponse execute(ModbusRequest libRequest) throws ModbusException;
+    }
+
     @FunctionalInterface
     private interface ModbusOperation<T> {
 
@@ -103,7 +134,7 @@ public class ModbusManagerImpl implements ModbusManager {
          *
          * @param timer aggregate stop watch for performance profiling
          * @param task task to execute
-         * @param connection connection to use
+         * @param executor executor of the transaction, either with a dedicated connection or a pipelined one
          *
          * @throws IIOException on generic IO errors
          * @throws ModbusException on Modbus protocol errors (e.g. ModbusIOException on I/O, ModbusSlaveException on
@@ -114,7 +145,7 @@ public class ModbusManagerImpl implements ModbusManager {
          *             (ill-behaving slave)
          * @throws ModbusUnexpectedResponseSizeException when data length of the response and request do not match
          */
-        public void accept(AggregateStopWatch timer, T task, ModbusSlaveConnection connection)
+        public void accept(AggregateStopWatch timer, T task, TransactionExecutor executor)
                 throws ModbusException, IIOException, ModbusUnexpectedTransactionIdException,
                 ModbusUnexpectedResponseFunctionCodeException, ModbusUnexpectedResponseSizeException;
     }
@@ -186,24 +217,21 @@ public class ModbusManagerImpl implements ModbusManager {
      */
     private class PollOperation implements ModbusOperation<PollTask> {
         @Override
-        public void accept(AggregateStopWatch timer, PollTask task, ModbusSlaveConnection connection)
+        public void accept(AggregateStopWatch timer, PollTask task, TransactionExecutor executor)
                 throws ModbusException, ModbusUnexpectedTransactionIdException,
                 ModbusUnexpectedResponseFunctionCodeException, ModbusUnexpectedResponseSizeException {
-            ModbusSlaveEndpoint endpoint = task.getEndpoint();
             ModbusReadRequestBlueprint request = task.getRequest();
             ModbusReadCallback callback = task.getCallback();
             String operationId = timer.operationId;
 
-            ModbusTransaction transaction = ModbusLibraryWrapper.createTransactionForEndpoint(endpoint, connection);
             ModbusRequest libRequest = ModbusLibraryWrapper.createRequest(request);
-            transaction.setRequest(libRequest);
 
             logger.trace("Going execute transaction with request request (FC={}): {} [operation ID {}]",
                     request.getFunctionCode(), libRequest.getHexMessage(), operationId);
             // Might throw ModbusIOException (I/O error) or ModbusSlaveException (explicit exception response from
             // slave)
-            timer.transaction.timeRunnableWithModbusException(() -> transaction.execute());
-            ModbusResponse response = transaction.getResponse();
+            ModbusResponse response = timer.transaction
+                    .timeSupplierWithModbusException(() -> executor.execute(libRequest));
             logger.trace("Response for read request (FC={}, transaction ID={}): {} [operation ID {}]",
                     response.getFunctionCode(), response.getTransactionID(), response.getHexMessage(), operationId);
             checkTransactionId(response, libRequest, operationId);
@@ -224,25 +252,22 @@ public class ModbusManagerImpl implements ModbusManager {
      */
     private class WriteOperation implements ModbusOperation<WriteTask> {
         @Override
-        public void accept(AggregateStopWatch timer, WriteTask task, ModbusSlaveConnection connection)
+        public void accept(AggregateStopWatch timer, WriteTask task, TransactionExecutor executor)
                 throws ModbusException, ModbusUnexpectedTransactionIdException,
                 ModbusUnexpectedResponseFunctionCodeException {
-            ModbusSlaveEndpoint endpoint = task.getEndpoint();
             ModbusWriteRequestBlueprint request = task.getRequest();
             ModbusWriteCallback callback = task.getCallback();
             String operationId = timer.operationId;
 
-            ModbusTransaction transaction = ModbusLibraryWrapper.createTransactionForEndpoint(endpoint, connection);
             ModbusRequest libRequest = ModbusLibraryWrapper.createRequest(request);
-            transaction.setRequest(libRequest);
 
             logger.trace("Going execute transaction with read request (FC={}): {} [operation ID {}]",
                     request.getFunctionCode(), libRequest.getHexMessage(), operationId);
 
             // Might throw ModbusIOException (I/O error) or ModbusSlaveException (explicit exception response from
             // slave)
-            timer.transaction.timeRunnableWithModbusException(() -> transaction.execute());
-            ModbusResponse response = transaction.getResponse();
+            ModbusResponse response = timer.transaction
+                    .timeSupplierWithModbusException(() -> executor.execute(libRequest));
             logger.trace("Response for write request (FC={}, transaction ID={}): {} [operation ID {}]",
                     response.getFunctionCode(), response.getTransactionID(), response.getHexMessage(), operationId);
             checkTransactionId(response, libRequest, operationId);
@@ -254,6 +279,221 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    /**
+     * Regular polls with the same endpoint, unit ID, function code and poll period. The polls are executed together,
+     * merging adjacent requests to single reads.
+     *
+     * @author agent - Initial contribution
+     *
+     */
+    private class PollGroup implements Runnable {
+        private final List<Object> key;
+        private final long pollPeriodMillis;
+        private final int maxGap;
+        private final Set<PollTask> tasks = new CopyOnWriteArraySet<>();
+        private volatile @Nullable ScheduledFuture<?> future;
+
+        private PollGroup(List<Object> key, long pollPeriodMillis, int maxGap) {
+            this.key = key;
+            this.pollPeriodMillis = pollPeriodMillis;
+            this.maxGap = maxGap;
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<PollTask> registeredTasks = tasks.stream().filter(scheduledPollTasks::containsKey)
+                        .collect(Collectors.toList());
+                List<PollTask> mergedTasks = MergedPollTask.merge(registeredTasks, maxGap,
+                        scheduledPollTasks::containsKey);
+                logger.debug("Executing scheduled ({}ms) poll group of {} tasks using {} reads", pollPeriodMillis,
+                        registeredTasks.size(), mergedTasks.size());
+                for (PollTask task : mergedTasks) {
+                    // merged task is not registered as such, data is passed to the registered tasks only
+                    queuePoll(task, task instanceof MergedPollTask, System.currentTimeMillis());
+                }
+            } catch (Exception e) {
+                // We want to catch all unexpected exceptions since all unhandled exceptions make
+                // ScheduledExecutorService halt the polling. It is better to print out the exception, and try again
+                // (on next poll cycle)
+                logger.warn(
+                        "Execution of scheduled ({}ms) poll group {} failed unexpectedly. Ignoring exception, polling again according to poll interval.",
+                        pollPeriodMillis, key, e);
+            }
+        }
+    }
+
+    /**
+     * Single coil and single register writes of one endpoint, waiting to be merged. The writes are flushed once the
+     * coalescing window has passed since the first buffered write, or before any other write to the endpoint, and
+     * executed in the order they were submitted.
+     *
+     * @author agent - Initial contribution
+     *
+     */
+    private class WriteBuffer {
+        private final List<QueuedOperation> operations = new ArrayList<>();
+        private @Nullable ScheduledFuture<?> flushFuture;
+
+        private synchronized void add(QueuedOperation operation, ScheduledExecutorService executor, long windowMillis) {
+            operations.add(operation);
+            if (flushFuture == null) {
+                flushFuture = executor.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private synchronized void flush() {
+            ScheduledFuture<?> future = flushFuture;
+            if (future != null) {
+                future.cancel(false);
+                flushFuture = null;
+            }
+            // writes cancelled while buffered are not executed
+            operations.removeIf(QueuedOperation::isCancelled);
+            if (operations.isEmpty()) {
+                return;
+            }
+            Map<WriteTask, QueuedOperation> operationsByTask = new IdentityHashMap<>();
+            List<WriteTask> tasks = new ArrayList<>(operations.size());
+            for (QueuedOperation operation : operations) {
+                WriteTask task = (WriteTask) operation.task;
+                operationsByTask.put(task, operation);
+                tasks.add(task);
+            }
+            List<WriteTask> mergedTasks = MergedWriteTask.merge(tasks);
+            logger.debug("Flushing {} buffered write tasks using {} writes", operations.size(), mergedTasks.size());
+            long now = System.currentTimeMillis();
+            for (WriteTask task : mergedTasks) {
+                QueuedOperation operation = operationsByTask.get(task);
+                if (task instanceof MergedWriteTask) {
+                    operation = new QueuedOperation(task, () -> executeWrite(task, now));
+                    for (WriteTask replaced : ((MergedWriteTask) task).getTasks()) {
+                        operation.replace(operationsByTask.get(replaced));
+                    }
+                }
+                if (operation != null) {
+                    queueWrite(operation);
+                }
+            }
+            operations.clear();
+        }
+
+        private synchronized void clear() {
+            ScheduledFuture<?> future = flushFuture;
+            if (future != null) {
+                future.cancel(false);
+                flushFuture = null;
+            }
+            operations.forEach(operation -> operation.cancel(false));
+            operations.clear();
+        }
+    }
+
+    /**
+     * Poll or write queued to the lane of its endpoint, and the future returned to the submitter of the task.
+     *
+     * Cancelling the future removes the operation from the queue. Operations dropped from the queue without being
+     * executed pass the error to the callback of the task. Stale polls superseded by a newer execution of the same poll
+     * are cancelled without notifying the callback.
+     *
+     * Single writes merged with other writes complete when the merged write completes. The merged write is cancelled
+     * when all the writes it replaces have been cancelled.
+     *
+     * @author agent - Initial contribution
+     *
+     */
+    private class QueuedOperation extends FutureTask<@Nullable Void>
+            implements ScheduledFuture<@Nullable Void>, EndpointLane.Operation {
+        private final TaskWithEndpoint<?, ?> task;
+        private final List<QueuedOperation> replaced = new CopyOnWriteArrayList<>();
+        private volatile @Nullable QueuedOperation replacement;
+
+        private QueuedOperation(TaskWithEndpoint<?, ?> task, Runnable operation) {
+            super(operation, null);
+            this.task = task;
+        }
+
+        /**
+         * Let this operation replace the given one, which is not queued itself
+         */
+        private void replace(@Nullable QueuedOperation operation) {
+            if (operation != null) {
+                operation.replacement = this;
+                replaced.add(operation);
+            }
+        }
+
+        @Override
+        public void dropped(Exception cause) {
+            if (!isDone()) {
+                setException(cause);
+                ModbusCallback callback = task.getCallback();
+                if (callback != null) {
+                    invokeCallbackWithError(task.getRequest(), callback, cause);
+                }
+            }
+        }
+
+        @Override
+        public void superseded() {
+            // already removed from the queue, the newer execution reports to the callback
+            super.cancel(false);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!super.cancel(mayInterruptIfRunning)) {
+                return false;
+            }
+            QueuedOperation replacement = this.replacement;
+            if (replacement == null) {
+                EndpointLane lane = lanes.get(task.getEndpoint());
+                if (lane != null) {
+                    lane.remove(this);
+                }
+            } else if (replacement.replaced.stream().allMatch(QueuedOperation::isCancelled)) {
+                replacement.cancel(mayInterruptIfRunning);
+            }
+            return true;
+        }
+
+        @Override
+        protected void done() {
+            for (QueuedOperation operation : replaced) {
+                operation.completeWith(this);
+            }
+        }
+
+        private void completeWith(QueuedOperation replacement) {
+            try {
+                replacement.get();
+                set(null);
+            } catch (CancellationException e) {
+                super.cancel(false);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                setException(cause == null ? e : cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public long getDelay(@Nullable TimeUnit unit) {
+            return 0;
+        }
+
+        @Override
+        public int compareTo(@Nullable Delayed other) {
+            return other == null ? 1 : Long.compare(0, other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public String toString() {
+            return "QueuedOperation [task=" + task + ", done=" + isDone() + ", cancelled=" + isCancelled() + "]";
+        }
+    }
+
     private final Logger logger = LoggerFactory.getLogger(ModbusManagerImpl.class);
     private final Logger pollMonitorLogger = LoggerFactory
             .getLogger(ModbusManagerImpl.class.getName() + ".PollMonitor");
@@ -292,8 +532,25 @@ public class ModbusManagerImpl implements ModbusManager {
      * Presumably slow callbacks can increase queue size with callbackThreadPool
      */
     private static final long WARN_QUEUE_SIZE = 500;
+
+    /**
+     * Maximum number of operations queued per endpoint. Writes make room for themselves by dropping queued polls.
+     */
+    private static final int MAX_ENDPOINT_QUEUE_SIZE = 100;
     private static final long MONITOR_QUEUE_INTERVAL_MILLIS = 10000;
 
+    /**
+     * Configuration key for the maximum gap, in registers or bits, between regular polls that are merged into a single
+     * read. Negative value disables merging (default).
+     */
+    private static final String CONFIG_POLL_MERGE_MAX_GAP = "pollMergeMaxGap";
+
+    /**
+     * Configuration key for the time, in milliseconds, single coil and single register writes are buffered in order
+     * to merge writes to contiguous addresses. Zero disables merging (default).
+     */
+    private static final String CONFIG_WRITE_COALESCING_WINDOW_MILLIS = "writeCoalescingWindowMillis";
+
     private final PollOperation pollOperation = new PollOperation();
     private final WriteOperation writeOperation = new WriteOperation();
 
@@ -313,6 +570,22 @@ public class ModbusManagerImpl implements ModbusManager {
     @Nullable
     private volatile ModbusSlaveConnectionFactoryImpl connectionFactory;
     private volatile Map<PollTask, ScheduledFuture<?>> scheduledPollTasks = new ConcurrentHashMap<>();
+    /**
+     * Pipelined connections of tcp endpoints allowing more than one transaction in flight
+     */
+    private final Map<ModbusSlaveEndpoint, ModbusTCPPipeline> pipelines = new ConcurrentHashMap<>();
+    /**
+     * Regular polls executed together, when merging of polls is enabled
+     */
+    private final Map<List<Object>, PollGroup> pollGroups = new ConcurrentHashMap<>();
+    /**
+     * Queues of operations per endpoint, so that slow endpoints do not starve the others
+     */
+    private final Map<ModbusSlaveEndpoint, EndpointLane> lanes = new ConcurrentHashMap<>();
+    private final Map<ModbusSlaveEndpoint, EndpointMetrics> metrics = new ConcurrentHashMap<>();
+    private volatile int pollMergeMaxGap = -1;
+    private final Map<ModbusSlaveEndpoint, WriteBuffer> writeBuffers = new ConcurrentHashMap<>();
+    private volatile long writeCoalescingWindowMillis;
     /**
      * Executor for requests
      */
@@ -406,6 +679,7 @@ public class ModbusManagerImpl implements ModbusManager {
         }
         long start = System.currentTimeMillis();
         connection.ifPresent(con -> {
+            getMetrics(endpoint).recordInvalidatedConnection();
             try {
                 pool.invalidateObject(endpoint, con);
             } catch (Exception e) {
@@ -482,6 +756,46 @@ public class ModbusManagerImpl implements ModbusManager {
         return connection;
     }
 
+    /**
+     * Get the pipelined connection of the endpoint, if it has been configured with more than one transaction in
+     * flight
+     *
+     * @param connectionFactory connection factory holding the endpoint configuration
+     * @param endpoint endpoint of the operation
+     * @return pipelined connection, or null if endpoint does not use pipelining
+     */
+    private @Nullable ModbusTCPPipeline getPipeline(ModbusSlaveConnectionFactoryImpl connectionFactory,
+            ModbusSlaveEndpoint endpoint) {
+        if (!(endpoint instanceof ModbusTCPSlaveEndpoint)) {
+            return null;
+        }
+        EndpointPoolConfiguration configuration = connectionFactory.getEndpointPoolConfiguration(endpoint);
+        if (configuration == null || configuration.getMaxTransactionsInFlight() <= 1) {
+            return null;
+        }
+        return pipelines.computeIfAbsent(endpoint,
+                key -> new ModbusTCPPipeline((ModbusTCPSlaveEndpoint) key, configuration.getMaxTransactionsInFlight(),
+                        configuration.getConnectTimeoutMillis(), Modbus.DEFAULT_TIMEOUT));
+    }
+
+    private void closePipeline(ModbusSlaveEndpoint endpoint, String reason) {
+        ModbusTCPPipeline pipeline = pipelines.remove(endpoint);
+        if (pipeline != null) {
+            pipeline.reset(reason);
+        }
+    }
+
+    /**
+     * Execute single transaction using dedicated connection
+     */
+    private static ModbusResponse executeTransaction(ModbusSlaveEndpoint endpoint, ModbusSlaveConnection connection,
+            ModbusRequest libRequest) throws ModbusException {
+        ModbusTransaction transaction = ModbusLibraryWrapper.createTransactionForEndpoint(endpoint, connection);
+        transaction.setRequest(libRequest);
+        transaction.execute();
+        return transaction.getResponse();
+    }
+
     private <R> void invokeCallbackWithError(ModbusRequestBlueprint request, ModbusCallback callback, Exception error) {
         try {
             logger.trace("Calling write response callback {} for request {}. Error was {} {}", callback, request,
@@ -561,7 +875,14 @@ public class ModbusManagerImpl implements ModbusManager {
             throw new IllegalArgumentException("maxTries should be positive");
         }
 
+        ModbusTCPPipeline pipeline = getPipeline(connectionFactory, endpoint);
+        if (pipeline != null) {
+            executePipelinedOperation(timer, task, oneOffTask, operation, pipeline);
+            return;
+        }
+
         Optional<ModbusSlaveConnection> connection = Optional.empty();
+        int tryIndex = 0;
         try {
             logger.trace("Starting new operation with task {}. Trying to get connection [operation ID {}]", task,
                     operationId);
@@ -572,6 +893,7 @@ public class ModbusManagerImpl implements ModbusManager {
                 // Could not acquire connection, time to abort
                 // Error logged already, error callback called as well
                 logger.trace("Initial connection was not successful, aborting. [operation ID {}]", operationId);
+                lastError.set(new ModbusConnectionException(endpoint));
                 return;
             }
 
@@ -581,7 +903,6 @@ public class ModbusManagerImpl implements ModbusManager {
                 return;
             }
 
-            int tryIndex = 0;
             /**
              * last execution is tracked such that the endpoint is not spammed on retry. First retry can be executed
              * right away since getConnection ensures enough time has passed since last transaction. More precisely,
@@ -617,11 +938,14 @@ public class ModbusManagerImpl implements ModbusManager {
                 try {
                     tryIndex++;
                     willRetry = tryIndex < maxTries;
-                    operation.accept(timer, task, connection.get());
+                    ModbusSlaveConnection slaveConnection = connection.get();
+                    operation.accept(timer, task,
+                            libRequest -> executeTransaction(endpoint, slaveConnection, libRequest));
                     lastError.set(null);
                     break;
                 } catch (IOException e) {
                     lastError.set(new ModbusSlaveIOExceptionImpl(e));
+                    recordTimeout(endpoint, e);
                     // IO exception occurred, we re-establish new connection hoping it would fix the issue (e.g.
                     // broken pipe on write)
                     if (willRetry) {
@@ -639,6 +963,7 @@ public class ModbusManagerImpl implements ModbusManager {
                     continue;
                 } catch (ModbusIOException e) {
                     lastError.set(new ModbusSlaveIOExceptionImpl(e));
+                    recordTimeout(endpoint, e);
                     // IO exception occurred, we re-establish new connection hoping it would fix the issue (e.g.
                     // broken pipe on write)
                     if (willRetry) {
@@ -732,23 +1057,214 @@ public class ModbusManagerImpl implements ModbusManager {
             timer.connection.timeConsumer(c -> returnConnection(endpoint, c), connection);
             logger.trace("Connection was returned to the pool, ending operation [operation ID {}]", operationId);
             timer.suspendAllRunning();
+            getMetrics(endpoint).recordOperation(timer, tryIndex, lastError.get() != null);
+            logger.debug("Modbus operation ended, timing info: {} [operation ID {}]", timer, operationId);
+        }
+    }
+
+    /**
+     * Execute operation using a pipelined connection shared with other operations of the same endpoint.
+     *
+     * The connection is not borrowed from the pool, and there is no delay between transactions. Errors are retried
+     * like with {@link #executeOperation}. On I/O errors the pipelined connection closes itself, and it is
+     * re-established with the next try.
+     *
+     * @param timer aggregate stop watch for performance profiling
+     * @param task task to execute
+     * @param oneOffTask whether this is one-off, or execution of previously scheduled poll
+     * @param operation operation to execute
+     * @param pipeline pipelined connection of the endpoint
+     */
+    private <R extends ModbusRequestBlueprint, C extends ModbusCallback, T extends TaskWithEndpoint<R, C>> void executePipelinedOperation(
+            AggregateStopWatch timer, @NonNull T task, boolean oneOffTask, ModbusOperation<T> operation,
+            ModbusTCPPipeline pipeline) {
+        String operationId = timer.operationId;
+        R request = task.getRequest();
+        @Nullable
+        C callback = task.getCallback();
+        int maxTries = task.getMaxTries();
+        @Nullable
+        Exception lastError = null;
+        int tries = 0;
+        try {
+            logger.trace("Starting new operation with task {} using {} [operation ID {}]", task, pipeline,
+                    operationId);
+            for (int tryIndex = 1; tryIndex <= maxTries; tryIndex++) {
+                if (scheduledThreadPoolExecutor == null) {
+                    logger.debug("Manager has been shut down, aborting proecssing request {} [operation ID {}]",
+                            request, operationId);
+                    return;
+                }
+                if (Thread.interrupted()) {
+                    logger.warn("Thread interrupted. Aborting operation [operation ID {}]", operationId);
+                    return;
+                }
+                // Check poll task is still registered (this is all asynchronous)
+                if (!oneOffTask && task instanceof PollTask) {
+                    verifyTaskIsRegistered((PollTask) task);
+                }
+                logger.trace("Try {} out of {} [operation ID {}]", tryIndex, maxTries, operationId);
+                tries = tryIndex;
+                try {
+                    operation.accept(timer, task, libRequest -> pipeline.execute(libRequest));
+                    lastError = null;
+                    break;
+                } catch (IOException e) {
+                    lastError = new ModbusSlaveIOExceptionImpl(e);
+                    recordTimeout(task.getEndpoint(), e);
+                } catch (ModbusIOException e) {
+                    lastError = new ModbusSlaveIOExceptionImpl(e);
+                    recordTimeout(task.getEndpoint(), e);
+                } catch (ModbusSlaveException e) {
+                    lastError = new ModbusSlaveErrorResponseExceptionImpl(e);
+                } catch (ModbusUnexpectedTransactionIdException | ModbusUnexpectedResponseFunctionCodeException
+                        | ModbusUnexpectedResponseSizeException e) {
+                    lastError = e;
+                    pipeline.reset("response did not match the request");
+                } catch (ModbusException e) {
+                    lastError = e;
+                    pipeline.reset(e.getMessage());
+                }
+                if (tryIndex < maxTries) {
+                    logger.warn(
+                            "Try {} out of {} failed when executing pipelined request ({}). Will try again soon. Error details: {} {} [operation ID {}]",
+                            tryIndex, maxTries, request, lastError.getClass().getName(), lastError.getMessage(),
+                            operationId);
+                } else {
+                    logger.error(
+                            "Last try {} failed when executing pipelined request ({}). Aborting. Error details: {} {} [operation ID {}]",
+                            tryIndex, request, lastError.getClass().getName(), lastError.getMessage(), operationId);
+                }
+            }
+            Exception exception = lastError;
+            if (exception != null && callback != null) {
+                // All retries failed with some error
+                timer.callback.timeRunnable(() -> {
+                    invokeCallbackWithError(request, callback, exception);
+                });
+            }
+        } catch (PollTaskUnregistered e) {
+            logger.warn("Poll task was unregistered -- not executing/proceeding with the poll: {} [operation ID {}]",
+                    e.getMessage(), operationId);
+        } finally {
+            timer.suspendAllRunning();
+            getMetrics(task.getEndpoint()).recordOperation(timer, tries, lastError != null);
             logger.debug("Modbus operation ended, timing info: {} [operation ID {}]", timer, operationId);
         }
     }
 
+    private EndpointMetrics getMetrics(ModbusSlaveEndpoint endpoint) {
+        return metrics.computeIfAbsent(endpoint, EndpointMetrics::new);
+    }
+
+    /**
+     * Count the error as timeout if it was caused by one. The library does not have a separate exception for
+     * timeouts, so we need to look at the error message as well.
+     */
+    private void recordTimeout(ModbusSlaveEndpoint endpoint, Exception error) {
+        String message = error.getMessage();
+        if (error instanceof SocketTimeoutException || error.getCause() instanceof SocketTimeoutException
+                || (message != null && (message.toLowerCase().contains("timeout")
+                        || message.toLowerCase().contains("timed out")))) {
+            getMetrics(endpoint).recordTimeout();
+        }
+    }
+
     @Override
-    public ScheduledFuture<?> submitOneTimePoll(PollTask task) {
+    public Collection<ModbusEndpointMetrics> getEndpointMetrics() {
+        return Collections.unmodifiableList(new ArrayList<>(metrics.values()));
+    }
+
+    @Override
+    public void resetMetrics() {
+        metrics.clear();
+    }
+
+    private @Nullable EndpointLane getLane(ModbusSlaveEndpoint endpoint) {
         ScheduledExecutorService executor = scheduledThreadPoolExecutor;
-        Objects.requireNonNull(executor, "Not activated!");
-        long scheduleTime = System.currentTimeMillis();
-        logger.debug("Scheduling one-off poll task {}", task);
-        ScheduledFuture<?> future = executor.schedule(() -> {
-            long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
-            logger.debug("Will now execute one-off poll task {}, waited in thread pool for {}", task,
-                    millisInThreadPoolWaiting);
-            executeOperation(task, true, pollOperation);
-        }, 0L, TimeUnit.MILLISECONDS);
-        return future;
+        if (executor == null) {
+            return null;
+        }
+        return lanes.computeIfAbsent(endpoint,
+                key -> new EndpointLane(key, executor, MAX_ENDPOINT_QUEUE_SIZE, getLaneConcurrency(key)));
+    }
+
+    /**
+     * Operations of single endpoint are executed one at a time, unless pipelining is enabled for the endpoint
+     */
+    private int getLaneConcurrency(ModbusSlaveEndpoint endpoint) {
+        ModbusSlaveConnectionFactoryImpl connectionFactory = this.connectionFactory;
+        if (connectionFactory == null || !(endpoint instanceof ModbusTCPSlaveEndpoint)) {
+            return 1;
+        }
+        EndpointPoolConfiguration configuration = connectionFactory.getEndpointPoolConfiguration(endpoint);
+        return configuration == null ? 1 : Math.max(1, configuration.getMaxTransactionsInFlight());
+    }
+
+    /**
+     * Queue poll to the lane of its endpoint
+     *
+     * @param task poll to execute
+     * @param oneOffTask whether this is one-off, or execution of previously scheduled poll
+     * @param queuedMillis time when the poll was submitted, for logging
+     * @return future of the queued poll
+     */
+    private QueuedOperation queuePoll(PollTask task, boolean oneOffTask, long queuedMillis) {
+        QueuedOperation operation = new QueuedOperation(task, () -> {
+            long waited = System.currentTimeMillis() - queuedMillis;
+            getMetrics(task.getEndpoint()).recordQueueWait(waited);
+            logger.debug("Will now execute poll task {} (oneOff={}), waited in queue for {}", task, oneOffTask,
+                    waited);
+            executeOperation(task, oneOffTask, pollOperation);
+        });
+        EndpointLane lane = getLane(task.getEndpoint());
+        if (lane == null) {
+            logger.debug("Manager has been shut down, not queuing poll task {}", task);
+            operation.cancel(false);
+            return operation;
+        }
+        // Regular polls replace their own stale executions still in queue. One-off polls are always executed.
+        Object key = oneOffTask && !(task instanceof MergedPollTask) ? operation : task;
+        if (!lane.submitPoll(key, operation)) {
+            logger.warn("Queue of endpoint {} is full, skipping poll task {}", task.getEndpoint(), task);
+            operation.dropped(new IllegalStateException(
+                    String.format("Too many queued operations for endpoint %s", task.getEndpoint())));
+        }
+        return operation;
+    }
+
+    /**
+     * Queue write to the lane of its endpoint. Writes are executed before any queued polls.
+     *
+     * @param operation write to execute
+     */
+    private void queueWrite(QueuedOperation operation) {
+        TaskWithEndpoint<?, ?> task = operation.task;
+        EndpointLane lane = getLane(task.getEndpoint());
+        if (lane == null) {
+            logger.debug("Manager has been shut down, not queuing write task {}", task);
+            operation.cancel(false);
+            return;
+        }
+        if (!lane.submitWrite(operation)) {
+            logger.error("Queue of endpoint {} is full of writes, rejecting write task {}", task.getEndpoint(), task);
+            operation.dropped(new IllegalStateException(
+                    String.format("Too many queued operations for endpoint %s", task.getEndpoint())));
+        }
+    }
+
+    private void executeWrite(WriteTask task, long queuedMillis) {
+        long waited = System.currentTimeMillis() - queuedMillis;
+        getMetrics(task.getEndpoint()).recordQueueWait(waited);
+        logger.debug("Will now execute one-off write task {}, waited in queue for {}", task, waited);
+        executeOperation(task, true, writeOperation);
+    }
+
+    @Override
+    public ScheduledFuture<?> submitOneTimePoll(PollTask task) {
+        Objects.requireNonNull(scheduledThreadPoolExecutor, "Not activated!");
+        logger.debug("Queuing one-off poll task {}", task);
+        return queuePoll(task, true, System.currentTimeMillis());
     }
 
     @Override
@@ -762,12 +1278,17 @@ public class ModbusManagerImpl implements ModbusManager {
                 logger.trace("Unregistering previous poll task (possibly with different period)");
                 unregisterRegularPoll(task);
             }
+            int maxGap = pollMergeMaxGap;
+            if (maxGap >= 0) {
+                registerGroupedPoll(executor, task, pollPeriodMillis, initialDelayMillis, maxGap);
+                return;
+            }
             ScheduledFuture<?> future = executor.scheduleWithFixedDelay(() -> {
                 long started = System.currentTimeMillis();
-                logger.debug("Executing scheduled ({}ms) poll task {}. Current millis: {}", pollPeriodMillis, task,
+                logger.debug("Queuing scheduled ({}ms) poll task {}. Current millis: {}", pollPeriodMillis, task,
                         started);
                 try {
-                    executeOperation(task, false, pollOperation);
+                    queuePoll(task, false, started);
                 } catch (Exception e) {
                     // We want to catch all unexpected exceptions since all unhandled exceptions make
                     // ScheduledExecutorService halt the polling. It is better to print out the exception, and try again
@@ -776,10 +1297,6 @@ public class ModbusManagerImpl implements ModbusManager {
                             "Execution of scheduled ({}ms) poll task {} failed unexpectedly. Ignoring exception, polling again according to poll interval.",
                             pollPeriodMillis, task, e);
                 }
-                long finished = System.currentTimeMillis();
-                logger.debug(
-                        "Execution of scheduled ({}ms) poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
-                        pollPeriodMillis, task, finished, started, finished - started);
             }, initialDelayMillis, pollPeriodMillis, TimeUnit.MILLISECONDS);
 
             scheduledPollTasks.put(task, future);
@@ -788,6 +1305,27 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    /**
+     * Register regular poll to the group of compatible polls. The group is scheduled with the initial delay of its
+     * first poll.
+     */
+    private void registerGroupedPoll(ScheduledExecutorService executor, PollTask task, long pollPeriodMillis,
+            long initialDelayMillis, int maxGap) {
+        ModbusReadRequestBlueprint request = task.getRequest();
+        List<Object> key = Arrays.asList(task.getEndpoint(), request.getUnitID(), request.getProtocolID(),
+                request.getFunctionCode(), pollPeriodMillis);
+        PollGroup group = pollGroups.computeIfAbsent(key, k -> new PollGroup(k, pollPeriodMillis, maxGap));
+        group.tasks.add(task);
+        ScheduledFuture<?> future = group.future;
+        if (future == null) {
+            group.future = future = executor.scheduleWithFixedDelay(group, initialDelayMillis, pollPeriodMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        scheduledPollTasks.put(task, future);
+        logger.trace("Registered poll task {} with period {} to a group of {} tasks", task, pollPeriodMillis,
+                group.tasks.size());
+    }
+
     @SuppressWarnings({ "null", "unused" })
     @Override
     public boolean unregisterRegularPoll(PollTask task) {
@@ -811,7 +1349,24 @@ public class ModbusManagerImpl implements ModbusManager {
             // is usually pretty soon as transactions should be relatively short-lived)
             factory.disconnectOnReturn(task.getEndpoint(), System.currentTimeMillis());
 
-            future.cancel(true);
+            boolean cancel = true;
+            for (PollGroup group : pollGroups.values()) {
+                if (group.tasks.remove(task)) {
+                    // other tasks of the group keep on polling
+                    cancel = group.tasks.isEmpty();
+                    if (cancel) {
+                        pollGroups.remove(group.key);
+                    }
+                    break;
+                }
+            }
+            if (cancel) {
+                future.cancel(true);
+            }
+            EndpointLane lane = lanes.get(task.getEndpoint());
+            if (lane != null) {
+                lane.removePoll(task);
+            }
 
             logger.info("Poll task {} canceled", task);
 
@@ -835,14 +1390,22 @@ public class ModbusManagerImpl implements ModbusManager {
         ScheduledExecutorService scheduledThreadPoolExecutor = this.scheduledThreadPoolExecutor;
         Objects.requireNonNull(scheduledThreadPoolExecutor, "Not activated!");
         long scheduleTime = System.currentTimeMillis();
-        logger.debug("Scheduling one-off write task {}", task);
-        ScheduledFuture<?> future = scheduledThreadPoolExecutor.schedule(() -> {
-            long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
-            logger.debug("Will now execute one-off write task {}, waited in thread pool for {}", task,
-                    millisInThreadPoolWaiting);
-            executeOperation(task, true, writeOperation);
-        }, 0L, TimeUnit.MILLISECONDS);
-        return future;
+        QueuedOperation operation = new QueuedOperation(task, () -> executeWrite(task, scheduleTime));
+        long windowMillis = writeCoalescingWindowMillis;
+        if (windowMillis > 0 && MergedWriteTask.isMergeable(task)) {
+            logger.debug("Buffering one-off write task {}", task);
+            writeBuffers.computeIfAbsent(task.getEndpoint(), key -> new WriteBuffer()).add(operation,
+                    scheduledThreadPoolExecutor, windowMillis);
+            return operation;
+        }
+        WriteBuffer buffer = writeBuffers.get(task.getEndpoint());
+        if (buffer != null) {
+            // writes buffered earlier are executed first
+            buffer.flush();
+        }
+        logger.debug("Queuing one-off write task {}", task);
+        queueWrite(operation);
+        return operation;
     }
 
     @Override
@@ -850,6 +1413,12 @@ public class ModbusManagerImpl implements ModbusManager {
             @Nullable EndpointPoolConfiguration configuration) {
         Objects.requireNonNull(connectionFactory, "Not activated!");
         connectionFactory.setEndpointPoolConfiguration(endpoint, configuration);
+        // re-created with the new configuration when needed
+        closePipeline(endpoint, "endpoint configuration changed");
+        EndpointLane lane = lanes.get(endpoint);
+        if (lane != null) {
+            lane.setMaxConcurrency(getLaneConcurrency(endpoint));
+        }
         for (ModbusManagerListener listener : listeners) {
             listener.onEndpointPoolConfigurationSet(endpoint, configuration);
         }
@@ -880,6 +1449,22 @@ public class ModbusManagerImpl implements ModbusManager {
     protected void activate(Map<String, Object> configProperties) {
         synchronized (this) {
             logger.info("Modbus manager activated");
+            Object maxGap = configProperties.get(CONFIG_POLL_MERGE_MAX_GAP);
+            try {
+                pollMergeMaxGap = maxGap == null ? -1 : Integer.parseInt(maxGap.toString());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value '{}' for {}, merging of polls is disabled", maxGap,
+                        CONFIG_POLL_MERGE_MAX_GAP);
+                pollMergeMaxGap = -1;
+            }
+            Object writeWindow = configProperties.get(CONFIG_WRITE_COALESCING_WINDOW_MILLIS);
+            try {
+                writeCoalescingWindowMillis = writeWindow == null ? 0 : Long.parseLong(writeWindow.toString());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value '{}' for {}, merging of writes is disabled", writeWindow,
+                        CONFIG_WRITE_COALESCING_WINDOW_MILLIS);
+                writeCoalescingWindowMillis = 0;
+            }
             if (connectionPool == null) {
                 constructConnectionPool();
             }
@@ -910,6 +1495,13 @@ public class ModbusManagerImpl implements ModbusManager {
                 connectionPool.close();
                 this.connectionPool = connectionPool = null;
             }
+            for (ModbusSlaveEndpoint endpoint : pipelines.keySet()) {
+                closePipeline(endpoint, "manager deactivated");
+            }
+            writeBuffers.values().forEach(WriteBuffer::clear);
+            writeBuffers.clear();
+            lanes.values().forEach(EndpointLane::clear);
+            lanes.clear();
 
             if (monitorFuture != null) {
                 monitorFuture.cancel(true);
@@ -954,6 +1546,15 @@ public class ModbusManagerImpl implements ModbusManager {
                 }
             }
 
+            lanes.values().forEach(lane -> {
+                pollMonitorLogger.trace("POLL MONITOR: {}", lane);
+                if (lane.getQueueSize() >= MAX_ENDPOINT_QUEUE_SIZE) {
+                    pollMonitorLogger.warn(
+                            "Queue of endpoint is full, operations are dropped. Endpoint might be unresponsive or polled too often: {}",
+                            lane);
+                }
+            });
+
             pollMonitorLogger.trace("</POLL MONITOR>");
         }
     }
@@ -0,0 +1,290 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.wimpi.modbus.ModbusException;
+import net.wimpi.modbus.ModbusIOException;
+import net.wimpi.modbus.ModbusSlaveException;
+import net.wimpi.modbus.io.ModbusTransport;
+import net.wimpi.modbus.msg.ExceptionResponse;
+import net.wimpi.modbus.msg.ModbusRequest;
+import net.wimpi.modbus.msg.ModbusResponse;
+import net.wimpi.modbus.net.TCPMasterConnection;
+
+/**
+ * Single connection to a Modbus TCP slave which allows several transactions to be in flight at the same time
+ *
+ * Each request gets a transaction ID unique among the pending requests. A dedicated reader thread reads the responses
+ * and hands them to the waiting requests by transaction ID, so the slave may answer in any order.
+ *
+ * When a response does not arrive in time, only the request waiting for it fails. Its transaction ID is not re-used
+ * until the late response has arrived, which is then discarded. On I/O errors, on responses with unexpected transaction
+ * IDs (the stream is out of sync), and when more requests have timed out than can be in flight (the slave has stopped
+ * answering), the connection is closed and all pending requests fail. The connection is re-established on next use.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class ModbusTCPPipeline {
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusTCPPipeline.class);
+
+    private final ModbusTCPSlaveEndpoint endpoint;
+    private final int maxInFlight;
+    private final int connectTimeoutMillis;
+    private final long responseTimeoutMillis;
+    private final Semaphore inFlight;
+
+    private final Object lock = new Object();
+    private @Nullable Link link;
+
+    /**
+     * @param endpoint endpoint to connect to
+     * @param maxInFlight maximum number of requests without response
+     * @param connectTimeoutMillis connect timeout, zero for system default
+     * @param responseTimeoutMillis maximum time to wait for a response
+     */
+    public ModbusTCPPipeline(ModbusTCPSlaveEndpoint endpoint, int maxInFlight, int connectTimeoutMillis,
+            long responseTimeoutMillis) {
+        this.endpoint = endpoint;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.responseTimeoutMillis = responseTimeoutMillis;
+        this.inFlight = new Semaphore(this.maxInFlight, true);
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Send the request and wait for the matching response
+     *
+     * The transaction ID of the request is overwritten.
+     *
+     * @param request request to send
+     * @return response with the transaction ID of the request
+     * @throws ModbusIOException on I/O errors, when the connection cannot be established, or when the response does
+     *             not arrive in time
+     * @throws ModbusSlaveException when slave responds with an exception response
+     */
+    public ModbusResponse execute(ModbusRequest request) throws ModbusException {
+        boolean acquired = false;
+        Link currentLink = null;
+        int transactionId = 0;
+        try {
+            acquired = inFlight.tryAcquire(responseTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (!acquired) {
+                throw new ModbusIOException(
+                        String.format("Timeout waiting for a free transaction slot with endpoint %s", endpoint));
+            }
+            currentLink = getLink();
+            CompletableFuture<ModbusResponse> pendingResponse = currentLink.send(request);
+            transactionId = request.getTransactionID();
+            ModbusResponse response = pendingResponse.get(responseTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (response instanceof ExceptionResponse) {
+                throw new ModbusSlaveException(((ExceptionResponse) response).getExceptionCode());
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ModbusIOException("Interrupted while waiting for response");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ModbusIOException) {
+                throw (ModbusIOException) cause;
+            }
+            throw new ModbusIOException(String.valueOf(cause == null ? e.getMessage() : cause.getMessage()));
+        } catch (TimeoutException e) {
+            if (currentLink != null) {
+                currentLink.timedOut(transactionId);
+            }
+            throw new ModbusIOException(String.format("Timeout waiting for response from endpoint %s", endpoint));
+        } finally {
+            if (acquired) {
+                inFlight.release();
+            }
+        }
+    }
+
+    /**
+     * Close the connection, failing all pending requests. Connection is re-established on next use.
+     *
+     * @param reason reason for logging
+     */
+    public void reset(@Nullable String reason) {
+        synchronized (lock) {
+            Link currentLink = link;
+            if (currentLink != null) {
+                currentLink.close(reason);
+                link = null;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ModbusTCPPipeline [endpoint=" + endpoint + ", maxInFlight=" + maxInFlight + "]";
+    }
+
+    private Link getLink() throws ModbusIOException {
+        synchronized (lock) {
+            Link currentLink = link;
+            if (currentLink == null || currentLink.closed) {
+                currentLink = new Link(connect());
+                link = currentLink;
+            }
+            return currentLink;
+        }
+    }
+
+    private TCPMasterConnection connect() throws ModbusIOException {
+        try {
+            TCPMasterConnection connection = new TCPMasterConnection(InetAddress.getByName(endpoint.getAddress()),
+                    endpoint.getPort(), connectTimeoutMillis);
+            connection.connect();
+            // responses are read by a dedicated thread, timeouts are tracked per request
+            connection.setTimeout(0);
+            logger.debug("Connected pipelined connection to endpoint {} (max {} transactions in flight)", endpoint,
+                    maxInFlight);
+            return connection;
+        } catch (Exception e) {
+            throw new ModbusIOException(
+                    String.format("Could not connect to endpoint %s: %s", endpoint, e.getMessage()));
+        }
+    }
+
+    /**
+     * One established connection, together with its reader thread
+     */
+    private class Link {
+        private final TCPMasterConnection connection;
+        private final ModbusTransport transport;
+        private final Map<Integer, CompletableFuture<ModbusResponse>> pending = new ConcurrentHashMap<>();
+        // transactions which timed out, the slave might still answer them
+        private final Set<Integer> timedOut = ConcurrentHashMap.newKeySet();
+        private volatile boolean closed;
+        private int lastTransactionId;
+
+        Link(TCPMasterConnection connection) {
+            this.connection = connection;
+            this.transport = connection.getModbusTransport();
+            Thread reader = new Thread(this::readResponses, "OH-modbus-pipeline-" + endpoint);
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        CompletableFuture<ModbusResponse> send(ModbusRequest request) throws ModbusIOException {
+            CompletableFuture<ModbusResponse> response = new CompletableFuture<>();
+            synchronized (this) {
+                if (closed) {
+                    throw new ModbusIOException("Connection has been closed");
+                }
+                int transactionId;
+                do {
+                    lastTransactionId = lastTransactionId % 0xFFFF + 1;
+                    transactionId = lastTransactionId;
+                } while (timedOut.contains(transactionId) || pending.putIfAbsent(transactionId, response) != null);
+                request.setTransactionID(transactionId);
+                try {
+                    transport.writeMessage(request);
+                } catch (ModbusIOException e) {
+                    pending.remove(transactionId);
+                    close(e.getMessage());
+                    throw e;
+                }
+            }
+            return response;
+        }
+
+        /**
+         * Give up waiting for the response of a single transaction. A late response is discarded.
+         *
+         * @param transactionId ID of the transaction which timed out
+         */
+        void timedOut(int transactionId) {
+            boolean tooMany;
+            synchronized (this) {
+                if (closed || pending.remove(transactionId) == null) {
+                    // connection closed or response arrived meanwhile
+                    return;
+                }
+                timedOut.add(transactionId);
+                tooMany = timedOut.size() > maxInFlight;
+            }
+            if (tooMany) {
+                close(String.format("%d transactions without response", timedOut.size()));
+            } else {
+                logger.debug("Response for transaction ID {} from endpoint {} timed out", transactionId, endpoint);
+            }
+        }
+
+        void close(@Nullable String reason) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            logger.debug("Closing pipelined connection to endpoint {}: {}", endpoint, reason);
+            connection.close();
+            ModbusIOException failure = new ModbusIOException(String.format("Connection closed: %s", reason));
+            synchronized (this) {
+                pending.values().forEach(response -> response.completeExceptionally(failure));
+                pending.clear();
+                timedOut.clear();
+            }
+        }
+
+        private void readResponses() {
+            try {
+                while (!closed) {
+                    ModbusResponse response = transport.readResponse();
+                    int transactionId = response.getTransactionID();
+                    CompletableFuture<ModbusResponse> pendingResponse;
+                    boolean late;
+                    synchronized (this) {
+                        pendingResponse = pending.remove(transactionId);
+                        late = pendingResponse == null && timedOut.remove(transactionId);
+                    }
+                    if (pendingResponse != null) {
+                        pendingResponse.complete(response);
+                    } else if (late) {
+                        logger.debug("Discarding late response with transaction ID {} from endpoint {}: {}",
+                                transactionId, endpoint, response.getHexMessage());
+                    } else {
+                        close(String.format("response with unknown transaction ID %d: %s", transactionId,
+                                response.getHexMessage()));
+                    }
+                }
+            } catch (ModbusIOException | RuntimeException e) {
+                close(e.getMessage());
+            }
+        }
+    }
+}
@@ -42,6 +42,11 @@ public class SimpleStopWatch {
         public abstract void run() throws ModbusException;
     }
 
+    @FunctionalInterface
+    public abstract interface SupplierWithModbusException<T> {
+        public abstract T get() throws ModbusException;
+    }
+
     /**
      * Resume or start the stop watch
      *
@@ -138,6 +143,24 @@ public class SimpleStopWatch {
         }
     }
 
+    /**
+     * Time single action using this StopWatch
+     *
+     * First StopWatch is resumed, then action is applied. Finally the StopWatch is suspended.
+     *
+     * @param supplier action to time
+     * @return return value from supplier
+     * @throws ModbusException when original supplier throws the exception
+     */
+    public <R> R timeSupplierWithModbusException(SupplierWithModbusException<R> supplier) throws ModbusException {
+        try {
+            this.resume();
+            return supplier.get();
+        } finally {
+            this.suspend();
+        }
+    }
+
     /**
      * Time single action using this StopWatch
      *
@@ -14,7 +14,9 @@ package org.openhab.io.transport.modbus.test;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeThat;
 
+import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Collections;
@@ -400,4 +402,40 @@ public class BitUtilitiesExtractStateFromRegistersTest {
         assertThat(String.format("registers=%s, index=%d, type=%s", registers, index, type), actualState,
                 is(equalTo(expectedStateWrapped)));
     }
+
+    @Test
+    public void testExtractDoublesFromRegisters() {
+        if (expectedResult instanceof Class && Exception.class.isAssignableFrom((Class) expectedResult)) {
+            shouldThrow.expect((Class) expectedResult);
+        }
+
+        double[] actual = new double[1];
+        ModbusBitUtilities.extractDoublesFromRegisters(this.registers, new int[] { this.index },
+                new ValueType[] { this.type }, actual);
+        String message = String.format("registers=%s, index=%d, type=%s", registers, index, type);
+        if (expectedResult instanceof DecimalType) {
+            assertThat(message, actual[0], is(equalTo(((DecimalType) expectedResult).doubleValue())));
+        } else {
+            // NaN and infinity are not representable with DecimalType
+            assertThat(message, Double.isNaN(actual[0]) || Double.isInfinite(actual[0]), is(equalTo(true)));
+        }
+    }
+
+    @Test
+    public void testExtractLongsFromRegisters() {
+        assumeThat(type, is(not(anyOf(equalTo(ValueType.FLOAT32), equalTo(ValueType.FLOAT32_SWAP)))));
+        if (expectedResult instanceof Class && Exception.class.isAssignableFrom((Class) expectedResult)) {
+            shouldThrow.expect((Class) expectedResult);
+        }
+
+        long[] actual = new long[1];
+        ModbusBitUtilities.extractLongsFromRegisters(this.registers, new int[] { this.index },
+                new ValueType[] { this.type }, actual);
+        BigInteger actualValue = BigInteger.valueOf(actual[0]);
+        if (actual[0] < 0 && (type == ValueType.UINT64 || type == ValueType.UINT64_SWAP)) {
+            actualValue = actualValue.add(BigInteger.ONE.shiftLeft(64));
+        }
+        assertThat(String.format("registers=%s, index=%d, type=%s", registers, index, type), actualValue,
+                is(equalTo(((DecimalType) expectedResult).toBigDecimal().toBigIntegerExact())));
+    }
 }
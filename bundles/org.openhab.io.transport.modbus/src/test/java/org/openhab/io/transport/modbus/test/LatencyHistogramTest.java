@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.internal.LatencyHistogram;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getCount(), is(equalTo(0L)));
+        assertThat(histogram.getMeanMillis(), is(equalTo(0.0)));
+        assertThat(histogram.getMaxMillis(), is(equalTo(0L)));
+        assertThat(histogram.getPercentileMillis(99), is(equalTo(0L)));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 20; i++) {
+            histogram.record(i);
+        }
+        assertThat(histogram.getCount(), is(equalTo(20L)));
+        assertThat(histogram.getMeanMillis(), is(equalTo(10.5)));
+        assertThat(histogram.getMaxMillis(), is(equalTo(20L)));
+        assertThat(histogram.getPercentileMillis(50), is(equalTo(10L)));
+        assertThat(histogram.getPercentileMillis(90), is(equalTo(18L)));
+        assertThat(histogram.getPercentileMillis(100), is(equalTo(20L)));
+        assertThat(histogram.getPercentileMillis(0), is(equalTo(1L)));
+    }
+
+    @Test
+    public void testLargeValuesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10000; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5);
+        assertThat(histogram.getMaxMillis(), is(equalTo(10000L)));
+        long p50 = histogram.getPercentileMillis(50);
+        assertTrue("p50 was " + p50, p50 >= 5000 && p50 <= 5000 * 33 / 32);
+        long p99 = histogram.getPercentileMillis(99);
+        assertTrue("p99 was " + p99, p99 >= 9900 && p99 <= 9900 * 33 / 32);
+        assertThat(histogram.getPercentileMillis(100), is(equalTo(10000L)));
+    }
+}
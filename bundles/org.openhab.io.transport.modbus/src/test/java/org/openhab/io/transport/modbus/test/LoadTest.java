@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BasicModbusWriteRegisterRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BasicWriteTask;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusEndpointMetrics;
+import org.openhab.io.transport.modbus.ModbusLatencyHistogram;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusResponse;
+import org.openhab.io.transport.modbus.ModbusSlaveErrorResponseException;
+import org.openhab.io.transport.modbus.ModbusWriteCallback;
+import org.openhab.io.transport.modbus.ModbusWriteRequestBlueprint;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.LatencyHistogram;
+import org.openhab.io.transport.modbus.test.IntegrationTestSupport.NonOSGIModbusManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load test driving the Modbus manager with many regular polls and writes against simulated slaves
+ *
+ * The test is skipped unless system property <code>modbus.loadtest</code> is <code>true</code>. Run it with e.g.
+ *
+ * <pre>
+ * mvn test -Dtest=LoadTest -Dmodbus.loadtest=true -Dmodbus.loadtest.durationMillis=30000
+ * </pre>
+ *
+ * The load can be tuned with the following system properties:
+ * <ul>
+ * <li><code>modbus.loadtest.slaves</code>: number of simulated slaves</li>
+ * <li><code>modbus.loadtest.pollsPerSlave</code>: number of regular polls per slave</li>
+ * <li><code>modbus.loadtest.pollPeriodMillis</code>: poll period of the regular polls</li>
+ * <li><code>modbus.loadtest.writes</code>: number of one-off writes, spread evenly over the test duration</li>
+ * <li><code>modbus.loadtest.responseDelayMillis</code>: response delay of the slaves</li>
+ * <li><code>modbus.loadtest.errorRate</code>: share of requests the slaves answer with an exception response</li>
+ * <li><code>modbus.loadtest.durationMillis</code>: duration of the test</li>
+ * </ul>
+ *
+ * Throughput and latency percentiles are logged once the test has finished.
+ *
+ * @author agent - Initial contribution
+ */
+public class LoadTest {
+
+    private static final String PROPERTY_PREFIX = "modbus.loadtest";
+
+    private final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+
+    private final int slaveCount = Integer.getInteger(PROPERTY_PREFIX + ".slaves", 4);
+    private final int pollsPerSlave = Integer.getInteger(PROPERTY_PREFIX + ".pollsPerSlave", 50);
+    private final long pollPeriodMillis = Long.getLong(PROPERTY_PREFIX + ".pollPeriodMillis", 1000L);
+    private final int writeCount = Integer.getInteger(PROPERTY_PREFIX + ".writes", 200);
+    private final long responseDelayMillis = Long.getLong(PROPERTY_PREFIX + ".responseDelayMillis", 1L);
+    private final double errorRate = Double.parseDouble(System.getProperty(PROPERTY_PREFIX + ".errorRate", "0.01"));
+    private final long durationMillis = Long.getLong(PROPERTY_PREFIX + ".durationMillis", 10_000L);
+
+    private final List<ModbusSlaveSimulator> slaves = new ArrayList<>();
+    private final List<ModbusSlaveEndpoint> endpoints = new ArrayList<>();
+    private NonOSGIModbusManager modbusManager;
+
+    private final AtomicLong pollResponses = new AtomicLong();
+    private final AtomicLong pollErrors = new AtomicLong();
+    private final AtomicLong unexpectedErrors = new AtomicLong();
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+
+    private final ModbusReadCallback pollCallback = new ModbusReadCallback() {
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+            pollResponses.incrementAndGet();
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+            pollResponses.incrementAndGet();
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+            pollErrors.incrementAndGet();
+            if (!(error instanceof ModbusSlaveErrorResponseException)) {
+                unexpectedErrors.incrementAndGet();
+                logger.error("Unexpected poll error for request {}", request, error);
+            }
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(Boolean.getBoolean(PROPERTY_PREFIX));
+        modbusManager = new NonOSGIModbusManager();
+        for (int i = 0; i < slaveCount; i++) {
+            ModbusSlaveSimulator slave = new ModbusSlaveSimulator().setResponseDelayMillis(responseDelayMillis)
+                    .setErrorRate(errorRate).start();
+            for (int address = 0; address < pollsPerSlave * 10; address++) {
+                slave.setHoldingRegister(address, address);
+            }
+            slaves.add(slave);
+
+            ModbusSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("127.0.0.1", slave.getPort());
+            EndpointPoolConfiguration configuration = new EndpointPoolConfiguration();
+            configuration.setInterTransactionDelayMillis(0);
+            configuration.setInterConnectDelayMillis(0);
+            configuration.setConnectMaxTries(3);
+            configuration.setConnectTimeoutMillis(1000);
+            modbusManager.setEndpointPoolConfiguration(endpoint, configuration);
+            endpoints.add(endpoint);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (modbusManager != null) {
+            modbusManager.close();
+        }
+        slaves.forEach(ModbusSlaveSimulator::close);
+    }
+
+    @Test
+    public void testPollsAndWrites() throws InterruptedException {
+        List<PollTask> polls = new ArrayList<>();
+        for (ModbusSlaveEndpoint endpoint : endpoints) {
+            for (int i = 0; i < pollsPerSlave; i++) {
+                PollTask task = new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(1,
+                        ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, i * 10, 10, 3), pollCallback);
+                polls.add(task);
+                // spread the polls evenly over the poll period
+                modbusManager.registerRegularPoll(task, pollPeriodMillis, pollPeriodMillis * i / pollsPerSlave);
+            }
+        }
+
+        long started = System.currentTimeMillis();
+        CountDownLatch writesDone = new CountDownLatch(writeCount);
+        for (int i = 0; i < writeCount; i++) {
+            long submitTime = started + durationMillis * i / writeCount;
+            long sleep = submitTime - System.currentTimeMillis();
+            if (sleep > 0) {
+                Thread.sleep(sleep);
+            }
+            ModbusSlaveEndpoint endpoint = endpoints.get(i % endpoints.size());
+            submitWrite(endpoint, i, writesDone);
+        }
+        long remaining = started + durationMillis - System.currentTimeMillis();
+        if (remaining > 0) {
+            Thread.sleep(remaining);
+        }
+        polls.forEach(modbusManager::unregisterRegularPoll);
+        long elapsedMillis = System.currentTimeMillis() - started;
+        assertTrue("Not all writes completed", writesDone.await(30, TimeUnit.SECONDS));
+
+        report(elapsedMillis);
+        assertThat(unexpectedErrors.get(), is(equalTo(0L)));
+        assertThat(pollResponses.get(), is(not(equalTo(0L))));
+    }
+
+    private void submitWrite(ModbusSlaveEndpoint endpoint, int index, CountDownLatch writesDone) {
+        long submitted = System.currentTimeMillis();
+        modbusManager.submitOneTimeWrite(new BasicWriteTask(endpoint, new BasicModbusWriteRegisterRequestBlueprint(1,
+                10_000 + index, new BasicModbusRegisterArray(index), false, 3), new ModbusWriteCallback() {
+
+                    @Override
+                    public void onWriteResponse(ModbusWriteRequestBlueprint request, ModbusResponse response) {
+                        writeLatency.record(System.currentTimeMillis() - submitted);
+                        writesDone.countDown();
+                    }
+
+                    @Override
+                    public void onError(ModbusWriteRequestBlueprint request, Exception error) {
+                        writeLatency.record(System.currentTimeMillis() - submitted);
+                        if (!(error instanceof ModbusSlaveErrorResponseException)) {
+                            unexpectedErrors.incrementAndGet();
+                            logger.error("Unexpected write error for request {}", request, error);
+                        }
+                        writesDone.countDown();
+                    }
+                }));
+    }
+
+    private void report(long elapsedMillis) {
+        long operations = modbusManager.getEndpointMetrics().stream().mapToLong(ModbusEndpointMetrics::getOperations)
+                .sum();
+        long requests = slaves.stream().mapToLong(ModbusSlaveSimulator::getRequests).sum();
+        logger.info("Modbus load test: {} slaves, {} polls per slave every {} ms, {} writes, response delay {} ms, "
+                + "error rate {}", slaveCount, pollsPerSlave, pollPeriodMillis, writeCount, responseDelayMillis,
+                errorRate);
+        logger.info("  {} operations/s, {} requests/s, {} poll responses, {} poll errors",
+                String.format("%.1f", operations * 1000.0 / elapsedMillis),
+                String.format("%.1f", requests * 1000.0 / elapsedMillis), pollResponses.get(), pollErrors.get());
+        logLatency("write (submit to callback)", writeLatency);
+        for (ModbusEndpointMetrics metrics : modbusManager.getEndpointMetrics()) {
+            logger.info("  {}: operations={}, failed={}, retries={}", metrics.getEndpoint(), metrics.getOperations(),
+                    metrics.getFailedOperations(), metrics.getRetries());
+            logLatency("queue wait", metrics.getQueueWaitTime());
+            logLatency("operation", metrics.getTotalTime());
+            logLatency("transaction", metrics.getTransactionTime());
+        }
+    }
+
+    private void logLatency(String name, ModbusLatencyHistogram histogram) {
+        logger.info("    {}: count={}, mean={} ms, p50={} ms, p99={} ms, max={} ms", name, histogram.getCount(),
+                String.format("%.1f", histogram.getMeanMillis()), histogram.getPercentileMillis(50),
+                histogram.getPercentileMillis(99), histogram.getMaxMillis());
+    }
+}
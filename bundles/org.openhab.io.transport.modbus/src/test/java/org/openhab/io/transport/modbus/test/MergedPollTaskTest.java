@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicBitArray;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.MergedPollTask;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class MergedPollTaskTest {
+
+    private static final ModbusSlaveEndpoint ENDPOINT = new ModbusTCPSlaveEndpoint("localhost", 502);
+
+    private static class RecordingCallback implements ModbusReadCallback {
+        private final List<Object> received = new ArrayList<>();
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+            received.add(registers.toHexString());
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+            received.add(bits);
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+            received.add(error);
+        }
+    }
+
+    private static PollTask task(int unitId, ModbusReadFunctionCode functionCode, int start, int length,
+            ModbusReadCallback callback) {
+        return new BasicPollTaskImpl(ENDPOINT,
+                new BasicModbusReadRequestBlueprint(unitId, functionCode, start, length, 1), callback);
+    }
+
+    @Test
+    public void testMergeAdjacentAndWithinGap() {
+        RecordingCallback callback = new RecordingCallback();
+        PollTask first = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2, callback);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 2, 2, callback);
+        PollTask third = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 6, 1, callback);
+        PollTask farAway = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 20, 1, callback);
+
+        List<PollTask> merged = MergedPollTask.merge(Arrays.asList(third, farAway, first, second), 2, t -> true);
+
+        assertThat(merged.size(), is(equalTo(2)));
+        assertTrue(merged.get(0) instanceof MergedPollTask);
+        assertThat(merged.get(0).getRequest().getReference(), is(equalTo(0)));
+        assertThat(merged.get(0).getRequest().getDataLength(), is(equalTo(7)));
+        assertThat(((MergedPollTask) merged.get(0)).getTasks(), is(equalTo(Arrays.asList(first, second, third))));
+        assertThat(merged.get(1), is(sameInstance(farAway)));
+    }
+
+    @Test
+    public void testIncompatibleTasksAreNotMerged() {
+        RecordingCallback callback = new RecordingCallback();
+        PollTask holding = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2, callback);
+        PollTask input = task(1, ModbusReadFunctionCode.READ_INPUT_REGISTERS, 2, 2, callback);
+        PollTask otherUnit = task(2, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 2, 2, callback);
+
+        List<PollTask> merged = MergedPollTask.merge(Arrays.asList(holding, input, otherUnit), 10, t -> true);
+
+        assertThat(merged, is(equalTo(Arrays.asList(holding, input, otherUnit))));
+    }
+
+    @Test
+    public void testRegisterLimit() {
+        RecordingCallback callback = new RecordingCallback();
+        PollTask first = task(1, ModbusReadFunctionCode.READ_INPUT_REGISTERS, 0, 100, callback);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_INPUT_REGISTERS, 100, 26, callback);
+
+        List<PollTask> merged = MergedPollTask.merge(Arrays.asList(first, second), 0, t -> true);
+
+        assertThat(merged, is(equalTo(Arrays.asList(first, second))));
+    }
+
+    @Test
+    public void testSplitRegisters() {
+        RecordingCallback firstCallback = new RecordingCallback();
+        RecordingCallback secondCallback = new RecordingCallback();
+        RecordingCallback unregisteredCallback = new RecordingCallback();
+        PollTask first = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 10, 2, firstCallback);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 13, 1, secondCallback);
+        PollTask unregistered = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 11, 1, unregisteredCallback);
+
+        List<PollTask> merged = MergedPollTask.merge(Arrays.asList(first, second, unregistered), 1,
+                t -> t != unregistered);
+        assertThat(merged.size(), is(equalTo(1)));
+        PollTask task = merged.get(0);
+        task.getCallback().onRegisters(task.getRequest(), new BasicModbusRegisterArray(1, 2, 3, 4));
+
+        assertThat(firstCallback.received, is(equalTo(Arrays.asList("00 01 00 02"))));
+        assertThat(secondCallback.received, is(equalTo(Arrays.asList("00 04"))));
+        assertThat(unregisteredCallback.received.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testSplitBitsAndErrors() {
+        RecordingCallback firstCallback = new RecordingCallback();
+        RecordingCallback secondCallback = new RecordingCallback();
+        PollTask first = task(1, ModbusReadFunctionCode.READ_COILS, 0, 2, firstCallback);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_COILS, 2, 3, secondCallback);
+
+        List<PollTask> merged = MergedPollTask.merge(Arrays.asList(first, second), 0, t -> true);
+        assertThat(merged.size(), is(equalTo(1)));
+        PollTask task = merged.get(0);
+        task.getCallback().onBits(task.getRequest(), new BasicBitArray(true, false, false, true, true));
+        Exception error = new Exception("error");
+        task.getCallback().onError(task.getRequest(), error);
+
+        assertThat(firstCallback.received, is(equalTo(Arrays.asList(new BasicBitArray(true, false), error))));
+        assertThat(secondCallback.received, is(equalTo(Arrays.asList(new BasicBitArray(false, true, true), error))));
+    }
+
+    @Test
+    public void testFailingCallbackDoesNotStopOthers() {
+        RecordingCallback failingCallback = new RecordingCallback() {
+            @Override
+            public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+                throw new IllegalStateException("callback failed");
+            }
+
+            @Override
+            public void onError(ModbusReadRequestBlueprint request, Exception error) {
+                throw new IllegalStateException("callback failed");
+            }
+        };
+        RecordingCallback secondCallback = new RecordingCallback();
+        PollTask first = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 1, failingCallback);
+        PollTask second = task(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 1, 1, secondCallback);
+
+        List<PollTask> merged = MergedPollTask.merge(Arrays.asList(first, second), 0, t -> true);
+        assertThat(merged.size(), is(equalTo(1)));
+        PollTask task = merged.get(0);
+        task.getCallback().onRegisters(task.getRequest(), new BasicModbusRegisterArray(1, 2));
+        Exception error = new Exception("error");
+        task.getCallback().onError(task.getRequest(), error);
+
+        assertThat(secondCallback.received, is(equalTo(Arrays.asList("00 02", error))));
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicBitArray;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BasicModbusWriteCoilRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusWriteRegisterRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicWriteTask;
+import org.openhab.io.transport.modbus.ModbusResponse;
+import org.openhab.io.transport.modbus.ModbusWriteCallback;
+import org.openhab.io.transport.modbus.ModbusWriteCoilRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusWriteFunctionCode;
+import org.openhab.io.transport.modbus.ModbusWriteRegisterRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusWriteRequestBlueprint;
+import org.openhab.io.transport.modbus.WriteTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.MergedWriteTask;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class MergedWriteTaskTest {
+
+    private static final ModbusSlaveEndpoint ENDPOINT = new ModbusTCPSlaveEndpoint("localhost", 502);
+
+    private static class RecordingCallback implements ModbusWriteCallback {
+        private final List<Object> received = new ArrayList<>();
+
+        @Override
+        public void onError(ModbusWriteRequestBlueprint request, Exception error) {
+            received.add(request);
+            received.add(error);
+        }
+
+        @Override
+        public void onWriteResponse(ModbusWriteRequestBlueprint request, ModbusResponse response) {
+            received.add(request);
+            received.add(response);
+        }
+    }
+
+    private static WriteTask coil(int reference, boolean value, ModbusWriteCallback callback) {
+        return new BasicWriteTask(ENDPOINT, new BasicModbusWriteCoilRequestBlueprint(1, reference, value, false, 1),
+                callback);
+    }
+
+    private static WriteTask register(int reference, int value, ModbusWriteCallback callback) {
+        return new BasicWriteTask(ENDPOINT, new BasicModbusWriteRegisterRequestBlueprint(1, reference,
+                new BasicModbusRegisterArray(value), false, 2), callback);
+    }
+
+    @Test
+    public void testIsMergeable() {
+        RecordingCallback callback = new RecordingCallback();
+        assertTrue(MergedWriteTask.isMergeable(coil(0, true, callback)));
+        assertTrue(MergedWriteTask.isMergeable(register(0, 5, callback)));
+        WriteTask twoRegisters = new BasicWriteTask(ENDPOINT,
+                new BasicModbusWriteRegisterRequestBlueprint(1, 0, new BasicModbusRegisterArray(1, 2), true, 1),
+                callback);
+        assertFalse(MergedWriteTask.isMergeable(twoRegisters));
+        assertThat(MergedWriteTask.getMergeKey(coil(0, true, callback)),
+                is(not(equalTo(MergedWriteTask.getMergeKey(register(0, 5, callback))))));
+    }
+
+    @Test
+    public void testMergeContiguousRegisters() {
+        RecordingCallback callback = new RecordingCallback();
+        WriteTask first = register(10, 1, callback);
+        WriteTask second = register(11, 2, callback);
+        WriteTask third = register(12, 3, callback);
+        WriteTask separate = register(14, 4, callback);
+
+        List<WriteTask> merged = MergedWriteTask.merge(Arrays.asList(first, second, third, separate));
+
+        assertThat(merged.size(), is(equalTo(2)));
+        assertTrue(merged.get(0) instanceof MergedWriteTask);
+        ModbusWriteRegisterRequestBlueprint request = (ModbusWriteRegisterRequestBlueprint) merged.get(0).getRequest();
+        assertThat(request.getFunctionCode(), is(equalTo(ModbusWriteFunctionCode.WRITE_MULTIPLE_REGISTERS)));
+        assertThat(request.getReference(), is(equalTo(10)));
+        assertThat(request.getMaxTries(), is(equalTo(2)));
+        assertThat(request.getRegisters().toHexString(), is(equalTo("00 01 00 02 00 03")));
+        assertThat(((MergedWriteTask) merged.get(0)).getTasks(), is(equalTo(Arrays.asList(first, second, third))));
+        assertThat(merged.get(1), is(sameInstance(separate)));
+    }
+
+    @Test
+    public void testKeepSubmissionOrder() {
+        RecordingCallback callback = new RecordingCallback();
+        WriteTask third = register(12, 3, callback);
+        WriteTask first = register(10, 1, callback);
+        WriteTask second = register(11, 2, callback);
+        WriteTask firstAgain = register(10, 4, callback);
+
+        List<WriteTask> merged = MergedWriteTask.merge(Arrays.asList(third, first, second, firstAgain));
+
+        assertThat(merged.size(), is(equalTo(3)));
+        assertThat(merged.get(0), is(sameInstance(third)));
+        assertThat(((MergedWriteTask) merged.get(1)).getTasks(), is(equalTo(Arrays.asList(first, second))));
+        assertThat(merged.get(2), is(sameInstance(firstAgain)));
+    }
+
+    @Test
+    public void testCoilsAndRegistersNotMerged() {
+        RecordingCallback callback = new RecordingCallback();
+        WriteTask coil = coil(0, true, callback);
+        WriteTask register = register(1, 5, callback);
+        WriteTask nextCoil = coil(1, false, callback);
+
+        List<WriteTask> merged = MergedWriteTask.merge(Arrays.asList(coil, register, nextCoil));
+
+        assertThat(merged, is(equalTo(Arrays.asList(coil, register, nextCoil))));
+    }
+
+    @Test
+    public void testRegisterLimit() {
+        RecordingCallback callback = new RecordingCallback();
+        List<WriteTask> tasks = new ArrayList<>();
+        for (int i = 0; i < MergedWriteTask.MAX_REGISTERS_PER_WRITE + 1; i++) {
+            tasks.add(register(i, i, callback));
+        }
+
+        List<WriteTask> merged = MergedWriteTask.merge(tasks);
+
+        assertThat(merged.size(), is(equalTo(2)));
+        assertThat(((MergedWriteTask) merged.get(0)).getTasks().size(),
+                is(equalTo(MergedWriteTask.MAX_REGISTERS_PER_WRITE)));
+        assertThat(merged.get(1), is(sameInstance(tasks.get(MergedWriteTask.MAX_REGISTERS_PER_WRITE))));
+    }
+
+    @Test
+    public void testMergeCoilsAndCallbacks() {
+        RecordingCallback firstCallback = new RecordingCallback();
+        RecordingCallback secondCallback = new RecordingCallback();
+        WriteTask first = coil(0, true, firstCallback);
+        WriteTask second = coil(1, false, secondCallback);
+
+        List<WriteTask> merged = MergedWriteTask.merge(Arrays.asList(first, second));
+        assertThat(merged.size(), is(equalTo(1)));
+        WriteTask task = merged.get(0);
+        ModbusWriteCoilRequestBlueprint request = (ModbusWriteCoilRequestBlueprint) task.getRequest();
+        assertThat(request.getFunctionCode(), is(equalTo(ModbusWriteFunctionCode.WRITE_MULTIPLE_COILS)));
+        assertThat(request.getCoils(), is(equalTo(new BasicBitArray(true, false))));
+
+        ModbusResponse response = mock(ModbusResponse.class);
+        task.getCallback().onWriteResponse(request, response);
+        Exception error = new Exception("error");
+        task.getCallback().onError(request, error);
+
+        assertThat(firstCallback.received,
+                is(equalTo(Arrays.asList(first.getRequest(), response, first.getRequest(), error))));
+        assertThat(secondCallback.received,
+                is(equalTo(Arrays.asList(second.getRequest(), response, second.getRequest(), error))));
+    }
+
+    @Test
+    public void testFailingCallbackDoesNotStopOthers() {
+        RecordingCallback failingCallback = new RecordingCallback() {
+            @Override
+            public void onError(ModbusWriteRequestBlueprint request, Exception error) {
+                throw new IllegalStateException("callback failed");
+            }
+
+            @Override
+            public void onWriteResponse(ModbusWriteRequestBlueprint request, ModbusResponse response) {
+                throw new IllegalStateException("callback failed");
+            }
+        };
+        RecordingCallback secondCallback = new RecordingCallback();
+        WriteTask first = register(0, 1, failingCallback);
+        WriteTask second = register(1, 2, secondCallback);
+
+        List<WriteTask> merged = MergedWriteTask.merge(Arrays.asList(first, second));
+        assertThat(merged.size(), is(equalTo(1)));
+        WriteTask task = merged.get(0);
+        ModbusResponse response = mock(ModbusResponse.class);
+        task.getCallback().onWriteResponse(task.getRequest(), response);
+        Exception error = new Exception("error");
+        task.getCallback().onError(task.getRequest(), error);
+
+        assertThat(secondCallback.received,
+                is(equalTo(Arrays.asList(second.getRequest(), response, second.getRequest(), error))));
+    }
+}
@@ -0,0 +1,324 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Modbus TCP slave for tests, independent of the Modbus library
+ *
+ * The slave serves coils, discrete inputs, holding registers and input registers, each with the full address range of
+ * 65536 items. Responses can be delayed, and a share of the requests can be answered with an exception response
+ * (slave device failure), to simulate slow and faulty slaves.
+ *
+ * Each connection is served by its own thread, and requests of a connection are answered in order. Any unit ID is
+ * accepted.
+ *
+ * @author agent - Initial contribution
+ */
+public class ModbusSlaveSimulator implements AutoCloseable {
+
+    private static final int ADDRESS_COUNT = 65536;
+
+    private static final int ILLEGAL_FUNCTION = 1;
+    private static final int ILLEGAL_DATA_ADDRESS = 2;
+    private static final int SLAVE_DEVICE_FAILURE = 4;
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusSlaveSimulator.class);
+
+    private final AtomicIntegerArray coils = new AtomicIntegerArray(ADDRESS_COUNT);
+    private final AtomicIntegerArray discreteInputs = new AtomicIntegerArray(ADDRESS_COUNT);
+    private final AtomicIntegerArray holdingRegisters = new AtomicIntegerArray(ADDRESS_COUNT);
+    private final AtomicIntegerArray inputRegisters = new AtomicIntegerArray(ADDRESS_COUNT);
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errorResponses = new AtomicLong();
+    private final AtomicLong acceptedConnections = new AtomicLong();
+    private final Set<Socket> connections = new CopyOnWriteArraySet<>();
+
+    private volatile long responseDelayMillis;
+    private volatile double errorRate;
+    private volatile ServerSocket serverSocket;
+
+    /**
+     * Start listening on a free port of the loopback interface
+     *
+     * @throws IOException when the server socket cannot be opened
+     */
+    public ModbusSlaveSimulator start() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        Thread acceptor = new Thread(this::acceptConnections, "ModbusSlaveSimulator-" + getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return this;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @param responseDelayMillis time to wait before answering each request
+     */
+    public ModbusSlaveSimulator setResponseDelayMillis(long responseDelayMillis) {
+        this.responseDelayMillis = responseDelayMillis;
+        return this;
+    }
+
+    /**
+     * @param errorRate share of requests, between 0 and 1, that are answered with an exception response
+     */
+    public ModbusSlaveSimulator setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public void setCoil(int address, boolean value) {
+        coils.set(address, value ? 1 : 0);
+    }
+
+    public boolean getCoil(int address) {
+        return coils.get(address) != 0;
+    }
+
+    public void setDiscreteInput(int address, boolean value) {
+        discreteInputs.set(address, value ? 1 : 0);
+    }
+
+    public void setHoldingRegister(int address, int value) {
+        holdingRegisters.set(address, value & 0xffff);
+    }
+
+    public int getHoldingRegister(int address) {
+        return holdingRegisters.get(address);
+    }
+
+    public void setInputRegister(int address, int value) {
+        inputRegisters.set(address, value & 0xffff);
+    }
+
+    /**
+     * @return number of requests received
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return number of exception responses sent
+     */
+    public long getErrorResponses() {
+        return errorResponses.get();
+    }
+
+    /**
+     * @return number of connections accepted
+     */
+    public long getAcceptedConnections() {
+        return acceptedConnections.get();
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // ignore, closing anyway
+        }
+        for (Socket socket : connections) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // ignore, closing anyway
+            }
+        }
+        connections.clear();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                acceptedConnections.incrementAndGet();
+                Thread handler = new Thread(() -> serve(socket), "ModbusSlaveSimulator-connection-" + getPort());
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                // server socket closed
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            while (true) {
+                // MBAP header: transaction ID, protocol ID, length, unit ID
+                int transactionId = in.readUnsignedShort();
+                int protocolId = in.readUnsignedShort();
+                int length = in.readUnsignedShort();
+                int unitId = in.readUnsignedByte();
+                byte[] pdu = new byte[length - 1];
+                in.readFully(pdu);
+                requests.incrementAndGet();
+
+                long delay = responseDelayMillis;
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+                byte[] responsePdu = handle(ByteBuffer.wrap(pdu));
+                ByteBuffer response = ByteBuffer.allocate(7 + responsePdu.length);
+                response.putShort((short) transactionId);
+                response.putShort((short) protocolId);
+                response.putShort((short) (responsePdu.length + 1));
+                response.put((byte) unitId);
+                response.put(responsePdu);
+                out.write(response.array());
+                out.flush();
+            }
+        } catch (EOFException | SocketException e) {
+            // connection closed by the master or by close()
+        } catch (IOException e) {
+            logger.warn("I/O error on connection {}", socket, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connections.remove(socket);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // ignore, closing anyway
+            }
+        }
+    }
+
+    private byte[] handle(ByteBuffer request) {
+        int functionCode = request.get() & 0xff;
+        double currentErrorRate = errorRate;
+        if (currentErrorRate > 0 && ThreadLocalRandom.current().nextDouble() < currentErrorRate) {
+            return exception(functionCode, SLAVE_DEVICE_FAILURE);
+        }
+        switch (functionCode) {
+            case 1:
+                return readBits(functionCode, request, coils);
+            case 2:
+                return readBits(functionCode, request, discreteInputs);
+            case 3:
+                return readRegisters(functionCode, request, holdingRegisters);
+            case 4:
+                return readRegisters(functionCode, request, inputRegisters);
+            case 5: {
+                int address = request.getShort() & 0xffff;
+                int value = request.getShort() & 0xffff;
+                coils.set(address, value == 0xff00 ? 1 : 0);
+                return echo(functionCode, address, value);
+            }
+            case 6: {
+                int address = request.getShort() & 0xffff;
+                int value = request.getShort() & 0xffff;
+                holdingRegisters.set(address, value);
+                return echo(functionCode, address, value);
+            }
+            case 15: {
+                int start = request.getShort() & 0xffff;
+                int count = request.getShort() & 0xffff;
+                if (start + count > ADDRESS_COUNT) {
+                    return exception(functionCode, ILLEGAL_DATA_ADDRESS);
+                }
+                request.get(); // byte count
+                byte[] bits = new byte[(count + 7) / 8];
+                request.get(bits);
+                for (int i = 0; i < count; i++) {
+                    coils.set(start + i, (bits[i / 8] >> (i % 8)) & 1);
+                }
+                return echo(functionCode, start, count);
+            }
+            case 16: {
+                int start = request.getShort() & 0xffff;
+                int count = request.getShort() & 0xffff;
+                if (start + count > ADDRESS_COUNT) {
+                    return exception(functionCode, ILLEGAL_DATA_ADDRESS);
+                }
+                request.get(); // byte count
+                for (int i = 0; i < count; i++) {
+                    holdingRegisters.set(start + i, request.getShort() & 0xffff);
+                }
+                return echo(functionCode, start, count);
+            }
+            default:
+                return exception(functionCode, ILLEGAL_FUNCTION);
+        }
+    }
+
+    private byte[] readBits(int functionCode, ByteBuffer request, AtomicIntegerArray data) {
+        int start = request.getShort() & 0xffff;
+        int count = request.getShort() & 0xffff;
+        if (start + count > ADDRESS_COUNT) {
+            return exception(functionCode, ILLEGAL_DATA_ADDRESS);
+        }
+        byte[] response = new byte[2 + (count + 7) / 8];
+        response[0] = (byte) functionCode;
+        response[1] = (byte) ((count + 7) / 8);
+        for (int i = 0; i < count; i++) {
+            if (data.get(start + i) != 0) {
+                response[2 + i / 8] |= 1 << (i % 8);
+            }
+        }
+        return response;
+    }
+
+    private byte[] readRegisters(int functionCode, ByteBuffer request, AtomicIntegerArray data) {
+        int start = request.getShort() & 0xffff;
+        int count = request.getShort() & 0xffff;
+        if (start + count > ADDRESS_COUNT) {
+            return exception(functionCode, ILLEGAL_DATA_ADDRESS);
+        }
+        ByteBuffer response = ByteBuffer.allocate(2 + 2 * count);
+        response.put((byte) functionCode);
+        response.put((byte) (2 * count));
+        for (int i = 0; i < count; i++) {
+            response.putShort((short) data.get(start + i));
+        }
+        return response.array();
+    }
+
+    private static byte[] echo(int functionCode, int first, int second) {
+        return ByteBuffer.allocate(5).put((byte) functionCode).putShort((short) first).putShort((short) second)
+                .array();
+    }
+
+    private byte[] exception(int functionCode, int exceptionCode) {
+        errorResponses.incrementAndGet();
+        return new byte[] { (byte) (functionCode | 0x80), (byte) exceptionCode };
+    }
+}
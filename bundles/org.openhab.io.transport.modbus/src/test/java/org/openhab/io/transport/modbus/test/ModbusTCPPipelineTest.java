@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.ModbusTCPPipeline;
+
+import net.wimpi.modbus.ModbusException;
+import net.wimpi.modbus.ModbusIOException;
+import net.wimpi.modbus.msg.ReadMultipleRegistersRequest;
+import net.wimpi.modbus.msg.ReadMultipleRegistersResponse;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class ModbusTCPPipelineTest {
+
+    private static final long RESPONSE_TIMEOUT_MILLIS = 500;
+
+    private ModbusSlaveSimulator slave;
+    private ModbusTCPPipeline pipeline;
+
+    @Before
+    public void setUp() throws IOException {
+        slave = new ModbusSlaveSimulator().start();
+        slave.setHoldingRegister(5, 42);
+        pipeline = new ModbusTCPPipeline(new ModbusTCPSlaveEndpoint("127.0.0.1", slave.getPort()), 2, 0,
+                RESPONSE_TIMEOUT_MILLIS);
+    }
+
+    @After
+    public void tearDown() {
+        pipeline.reset("test finished");
+        slave.close();
+    }
+
+    private int readRegister() throws ModbusException {
+        ReadMultipleRegistersRequest request = new ReadMultipleRegistersRequest(5, 1);
+        request.setUnitID(1);
+        return ((ReadMultipleRegistersResponse) pipeline.execute(request)).getRegisterValue(0);
+    }
+
+    @Test
+    public void testTimeoutKeepsConnection() throws Exception {
+        slave.setResponseDelayMillis(RESPONSE_TIMEOUT_MILLIS + 100);
+        try {
+            readRegister();
+            fail("Expected timeout");
+        } catch (ModbusIOException e) {
+            // expected
+        }
+
+        // the late response of the timed out request is discarded
+        slave.setResponseDelayMillis(0);
+        assertEquals(42, readRegister());
+        assertEquals(42, readRegister());
+        assertEquals(1, slave.getAcceptedConnections());
+    }
+
+    @Test
+    public void testReconnectWhenSlaveStopsAnswering() throws Exception {
+        slave.setResponseDelayMillis(4 * RESPONSE_TIMEOUT_MILLIS);
+        for (int i = 0; i < 3; i++) {
+            try {
+                readRegister();
+                fail("Expected timeout");
+            } catch (ModbusIOException e) {
+                // expected
+            }
+        }
+
+        // more requests timed out than can be in flight, the connection has been closed
+        slave.setResponseDelayMillis(0);
+        assertEquals(42, readRegister());
+        assertEquals(2, slave.getAcceptedConnections());
+    }
+}
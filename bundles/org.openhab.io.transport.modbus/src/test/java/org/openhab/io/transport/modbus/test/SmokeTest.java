@@ -15,11 +15,13 @@ package org.openhab.io.transport.modbus.test;
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
 import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
 
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -398,6 +400,60 @@ public class SmokeTest extends IntegrationTestSupport {
         testHoldingValues(registers, 1);
     }
 
+    /**
+     * Several one-off reads sharing single pipelined connection
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testOneOffReadsWithHoldingPipelined() throws InterruptedException {
+        assumeTrue("Pipelining is supported with TCP only", ServerType.TCP.equals(serverType));
+        generateData();
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        EndpointPoolConfiguration configuration = new EndpointPoolConfiguration();
+        configuration.setMaxTransactionsInFlight(4);
+        modbusManager.setEndpointPoolConfiguration(endpoint, configuration);
+
+        int requests = 10;
+        AtomicInteger unexpectedCount = new AtomicInteger();
+        CountDownLatch callbackCalled = new CountDownLatch(requests);
+        AtomicReferenceArray<ModbusRegisterArray> data = new AtomicReferenceArray<>(requests);
+
+        for (int i = 0; i < requests; i++) {
+            int index = i;
+            BasicPollTaskImpl task = new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(
+                    SLAVE_UNIT_ID, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, index, 5, 1),
+                    new ModbusReadCallback() {
+
+                        @Override
+                        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+                            data.set(index, registers);
+                            callbackCalled.countDown();
+                        }
+
+                        @Override
+                        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+                            unexpectedCount.incrementAndGet();
+                            callbackCalled.countDown();
+                        }
+
+                        @Override
+                        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+                            unexpectedCount.incrementAndGet();
+                            callbackCalled.countDown();
+                        }
+                    });
+            modbusManager.submitOneTimePoll(task);
+        }
+        assertTrue(callbackCalled.await(5, TimeUnit.SECONDS));
+        assertThat(unexpectedCount.get(), is(equalTo(0)));
+        for (int i = 0; i < requests; i++) {
+            ModbusRegisterArray registers = data.get(i);
+            assertThat(registers.size(), is(equalTo(5)));
+            testHoldingValues(registers, i);
+        }
+    }
+
     /**
      *
      * @throws InterruptedException
@@ -14,8 +14,11 @@ package org.openhab.transform.bin2json.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.eclipse.smarthome.core.util.HexUtils;
 import org.slf4j.Logger;
@@ -24,6 +27,7 @@ import org.slf4j.LoggerFactory;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
 import com.igormaznitsa.jbbp.JBBPParser;
 import com.igormaznitsa.jbbp.exceptions.JBBPException;
 import com.igormaznitsa.jbbp.model.JBBPAbstractArrayField;
@@ -66,6 +70,10 @@ import com.igormaznitsa.jbbp.model.JBBPFieldUShort;
  * json.toString() = {"a":3,"b":-6,"c":255}
  * </pre>
  *
+ * <p>
+ * The prepared parser is immutable, so one instance can be reused for any number of conversions, also concurrently.
+ * The <code>convertToString</code> methods write the JSON text directly, without building the Gson tree first.
+ *
  * @author Pauli Anttila - Initial contribution
  *
  */
@@ -137,6 +145,59 @@ public class Bin2Json {
         }
     }
 
+    /**
+     * Convert {@link String} in hexadecimal string format to JSON text.
+     *
+     * @param hexString Data in hexadecimal string format. Example data: 03FAFF
+     * @return JSON text, equal to the string representation of {@link #convert(String)}
+     * @throws ConversionException
+     */
+    public String convertToString(String hexString) throws ConversionException {
+        try {
+            return convertToString(HexUtils.hexToBytes(hexString));
+        } catch (IllegalArgumentException e) {
+            throw new ConversionException(String.format("Illegal hexstring , reason: %s", e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Convert byte array to JSON text.
+     *
+     * @param data Data in byte array format.
+     * @return JSON text, equal to the string representation of {@link #convert(byte[])}
+     * @throws ConversionException
+     */
+    public String convertToString(byte[] data) throws ConversionException {
+        final JBBPFieldStruct struct;
+        try {
+            struct = parser.parse(data);
+        } catch (IOException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        } catch (JBBPException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        }
+
+        try {
+            LocalDateTime start = LocalDateTime.now();
+            final StringWriter out = new StringWriter();
+            final JsonWriter writer = new JsonWriter(out);
+            writer.setLenient(true);
+            writeStruct(writer, struct);
+            writer.flush();
+            final String json = out.toString();
+            if (logger.isTraceEnabled()) {
+                Duration duration = Duration.between(start, LocalDateTime.now());
+                logger.trace("Conversion time={}, json={}", duration, json);
+            }
+            return json;
+        } catch (DuplicateFieldException e) {
+            // a JSON object keeps only the last of several fields with the same name
+            return convert(struct).toString();
+        } catch (IOException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        }
+    }
+
     private JsonObject convert(JBBPFieldStruct data) throws ConversionException {
         try {
             LocalDateTime start = LocalDateTime.now();
@@ -236,4 +297,99 @@ public class Bin2Json {
         }
         return jsn;
     }
+
+    private void writeStruct(final JsonWriter writer, final JBBPFieldStruct struct)
+            throws IOException, ConversionException {
+        final Set<String> fieldNames = new HashSet<>();
+        writer.beginObject();
+        for (final JBBPAbstractField field : struct.getArray()) {
+            final String fieldName = field.getFieldName() == null ? "nonamed" : field.getFieldName();
+            if (!fieldNames.add(fieldName)) {
+                throw new DuplicateFieldException();
+            }
+            writer.name(fieldName);
+            writeField(writer, field);
+        }
+        writer.endObject();
+    }
+
+    private void writeField(final JsonWriter writer, final JBBPAbstractField field)
+            throws IOException, ConversionException {
+        if (field instanceof JBBPAbstractArrayField) {
+            writer.beginArray();
+            if (field instanceof JBBPFieldArrayBit) {
+                for (final byte b : ((JBBPFieldArrayBit) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayBoolean) {
+                for (final boolean b : ((JBBPFieldArrayBoolean) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayByte) {
+                for (final byte b : ((JBBPFieldArrayByte) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayInt) {
+                for (final int b : ((JBBPFieldArrayInt) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayLong) {
+                for (final long b : ((JBBPFieldArrayLong) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayShort) {
+                for (final short b : ((JBBPFieldArrayShort) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayStruct) {
+                final JBBPFieldArrayStruct array = (JBBPFieldArrayStruct) field;
+                for (int i = 0; i < array.size(); i++) {
+                    // Each element is wrapped in an object with the element name, like the JsonObject conversion
+                    final JBBPFieldStruct element = array.getElementAt(i);
+                    writer.beginObject();
+                    writer.name(element.getFieldName() == null ? "nonamed" : element.getFieldName());
+                    writeStruct(writer, element);
+                    writer.endObject();
+                }
+            } else if (field instanceof JBBPFieldArrayUByte) {
+                for (final byte b : ((JBBPFieldArrayUByte) field).getArray()) {
+                    writer.value(b & 0xFF);
+                }
+            } else if (field instanceof JBBPFieldArrayUShort) {
+                for (final short b : ((JBBPFieldArrayUShort) field).getArray()) {
+                    writer.value(b & 0xFFFF);
+                }
+            } else {
+                throw new ConversionException(String.format("Unexpected field type '%s'", field));
+            }
+            writer.endArray();
+        } else if (field instanceof JBBPFieldBit) {
+            writer.value(((JBBPFieldBit) field).getAsInt());
+        } else if (field instanceof JBBPFieldBoolean) {
+            writer.value(((JBBPFieldBoolean) field).getAsBool());
+        } else if (field instanceof JBBPFieldByte) {
+            writer.value(((JBBPFieldByte) field).getAsInt());
+        } else if (field instanceof JBBPFieldInt) {
+            writer.value(((JBBPFieldInt) field).getAsInt());
+        } else if (field instanceof JBBPFieldLong) {
+            writer.value(((JBBPFieldLong) field).getAsLong());
+        } else if (field instanceof JBBPFieldShort) {
+            writer.value(((JBBPFieldShort) field).getAsInt());
+        } else if (field instanceof JBBPFieldStruct) {
+            writeStruct(writer, (JBBPFieldStruct) field);
+        } else if (field instanceof JBBPFieldUByte) {
+            writer.value(((JBBPFieldUByte) field).getAsInt());
+        } else if (field instanceof JBBPFieldUShort) {
+            writer.value(((JBBPFieldUShort) field).getAsInt());
+        } else {
+            throw new ConversionException(String.format("Unexpected field '%s'", field));
+        }
+    }
+
+    /**
+     * Signals a struct with several fields of the same name, which can not be written as a stream.
+     */
+    private static class DuplicateFieldException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
 }
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.bin2json.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks that the JSON text written by {@link Bin2Json#convertToString(String)} is equal to the
+ * string representation of the {@link com.google.gson.JsonObject} conversion.
+ *
+ * @author agent - Initial contribution
+ */
+public class Bin2JsonTest {
+
+    private void assertSameJson(String rule, String hexString) throws ConversionException {
+        Bin2Json bin2json = new Bin2Json(rule);
+        assertEquals(bin2json.convert(hexString).toString(), bin2json.convertToString(hexString));
+    }
+
+    @Test
+    public void scalars() throws ConversionException {
+        assertSameJson("byte a; ubyte b; short c; ushort d; int e; long f; bool g; bit:4 h; bit:4 i;",
+                "FAFF" + "FFFE" + "FFFE" + "00000102" + "0000000000000103" + "01" + "A5");
+    }
+
+    @Test
+    public void arrays() throws ConversionException {
+        assertSameJson("byte[2] a; ubyte[2] b; short[1] c; ushort[1] d; int[1] e; long[1] f; bool[2] g; bit:4[2] h;",
+                "FA05" + "FF01" + "FFFE" + "FFFE" + "00000102" + "0000000000000103" + "0100" + "A5");
+    }
+
+    @Test
+    public void nestedStructs() throws ConversionException {
+        assertSameJson("byte a; outer { ubyte b; inner { short c; } }", "FAFF0102");
+    }
+
+    @Test
+    public void structArrays() throws ConversionException {
+        assertSameJson("byte count; items [2] { byte x; ubyte y; }", "0201FF02FE");
+        assertSameJson("items [_] { ubyte x; }", "010203");
+    }
+
+    @Test
+    public void unnamedFields() throws ConversionException {
+        assertSameJson("byte; ubyte;", "FAFF");
+    }
+}
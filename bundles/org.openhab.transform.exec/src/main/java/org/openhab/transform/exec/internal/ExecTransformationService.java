@@ -12,6 +12,9 @@
  */
 package org.openhab.transform.exec.internal;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
@@ -19,6 +22,7 @@ import org.eclipse.smarthome.core.transform.TransformationService;
 import org.eclipse.smarthome.io.net.exec.ExecUtil;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +31,9 @@ import org.slf4j.LoggerFactory;
  * The implementation of {@link TransformationService} which transforms the
  * input by command line.
  *
+ * Commands whitelisted as persistent are started only once and transform their input line by line, see
+ * {@link PersistentExecProcess}.
+ *
  * @author Pauli Anttila - Initial contribution
  * @author Jan N. Klug - added command whitelist service
  */
@@ -34,12 +41,39 @@ import org.slf4j.LoggerFactory;
 @Component(immediate = true, property = { "smarthome.transform=EXEC" })
 public class ExecTransformationService implements TransformationService {
     private final Logger logger = LoggerFactory.getLogger(ExecTransformationService.class);
+    private static final int TIMEOUT_MILLIS = 5000;
+    private static final int MAX_IN_FLIGHT = 4;
+
     private final ExecTransformationWhitelistWatchService execTransformationWhitelistWatchService;
+    private final Map<String, PersistentExecProcess> persistentProcesses = new ConcurrentHashMap<>();
+    private final Runnable whitelistChangeListener = this::shutdownRemovedProcesses;
 
     @Activate
     public ExecTransformationService(
             @Reference ExecTransformationWhitelistWatchService execTransformationWhitelistWatchService) {
         this.execTransformationWhitelistWatchService = execTransformationWhitelistWatchService;
+        execTransformationWhitelistWatchService.addChangeListener(whitelistChangeListener);
+    }
+
+    @Deactivate
+    public void deactivate() {
+        execTransformationWhitelistWatchService.removeChangeListener(whitelistChangeListener);
+        persistentProcesses.values().forEach(PersistentExecProcess::shutdown);
+        persistentProcesses.clear();
+    }
+
+    /**
+     * Shuts down the processes of commands no longer whitelisted as persistent
+     */
+    private void shutdownRemovedProcesses() {
+        persistentProcesses.entrySet().removeIf(entry -> {
+            if (execTransformationWhitelistWatchService.isPersistent(entry.getKey())) {
+                return false;
+            }
+            logger.debug("Command '{}' is no longer whitelisted as persistent, stopping its process", entry.getKey());
+            entry.getValue().shutdown();
+            return true;
+        });
     }
 
     /**
@@ -63,8 +97,15 @@ public class ExecTransformationService implements TransformationService {
 
         long startTime = System.currentTimeMillis();
 
+        if (execTransformationWhitelistWatchService.isPersistent(commandLine)) {
+            String result = persistentProcesses.computeIfAbsent(commandLine,
+                    command -> new PersistentExecProcess(command, MAX_IN_FLIGHT, TIMEOUT_MILLIS)).transform(source);
+            logger.trace("persistent command execution elapsed {} ms", System.currentTimeMillis() - startTime);
+            return result;
+        }
+
         String formattedCommandLine = String.format(commandLine, source);
-        String result = ExecUtil.executeCommandLineAndWaitResponse(formattedCommandLine, 5000);
+        String result = ExecUtil.executeCommandLineAndWaitResponse(formattedCommandLine, TIMEOUT_MILLIS);
         logger.trace("command line execution elapsed {} ms", System.currentTimeMillis() - startTime);
 
         return result;
@@ -21,8 +21,11 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchEvent.Kind;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -43,9 +46,12 @@ import org.slf4j.LoggerFactory;
 public class ExecTransformationWhitelistWatchService extends AbstractWatchService {
     private static final String COMMAND_WHITELIST_PATH = ConfigConstants.getConfigFolder() + File.separator + "misc";
     private static final String COMMAND_WHITELIST_FILE = "exec.whitelist";
+    private static final String PERSISTENT_PREFIX = "persistent:";
 
     private final Logger logger = LoggerFactory.getLogger(ExecTransformationWhitelistWatchService.class);
-    private final Set<String> commandWhitelist = new HashSet<>();
+    private volatile Set<String> commandWhitelist = Collections.emptySet();
+    private volatile Set<String> persistentCommands = Collections.emptySet();
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
 
     @Activate
     public ExecTransformationWhitelistWatchService() {
@@ -66,16 +72,46 @@ public class ExecTransformationWhitelistWatchService extends AbstractWatchServic
     @Override
     protected void processWatchEvent(@Nullable WatchEvent<?> event, @Nullable Kind<?> kind, @Nullable Path path) {
         if (path != null && path.endsWith(COMMAND_WHITELIST_FILE)) {
-            commandWhitelist.clear();
+            Set<String> whitelist = new HashSet<>();
+            Set<String> persistent = new HashSet<>();
             try {
-                Files.lines(path).filter(line -> !line.trim().startsWith("#")).forEach(commandWhitelist::add);
-                logger.debug("Updated command whitelist: {}", commandWhitelist);
+                Files.lines(path).map(String::trim).filter(line -> !line.startsWith("#")).forEach(line -> {
+                    if (line.startsWith(PERSISTENT_PREFIX)) {
+                        String command = line.substring(PERSISTENT_PREFIX.length()).trim();
+                        whitelist.add(command);
+                        persistent.add(command);
+                    } else {
+                        whitelist.add(line);
+                    }
+                });
+                logger.debug("Updated command whitelist: {}, persistent commands: {}", whitelist, persistent);
             } catch (IOException e) {
                 logger.warn("Cannot read whitelist file, exec transformations won't be processed: {}", e.getMessage());
             }
+            commandWhitelist = whitelist;
+            persistentCommands = persistent;
+            changeListeners.forEach(Runnable::run);
         }
     }
 
+    /**
+     * Registers a listener called after the whitelist has been reloaded
+     *
+     * @param listener the listener
+     */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener registered with {@link #addChangeListener(Runnable)}
+     *
+     * @param listener the listener
+     */
+    public void removeChangeListener(Runnable listener) {
+        changeListeners.remove(listener);
+    }
+
     /**
      * Check if a command is whitelisted
      *
@@ -85,4 +121,14 @@ public class ExecTransformationWhitelistWatchService extends AbstractWatchServic
     public boolean isWhitelisted(String command) {
         return commandWhitelist.contains(command);
     }
+
+    /**
+     * Check if a command is whitelisted to be run as a persistent process
+     *
+     * @param command the command to check
+     * @return true if the command shall be run as persistent process, false if not
+     */
+    public boolean isPersistent(String command) {
+        return persistentCommands.contains(command);
+    }
 }
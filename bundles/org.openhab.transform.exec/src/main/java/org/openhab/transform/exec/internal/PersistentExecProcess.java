@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A long-lived child process which transforms its input line by line: every input is written as one line to the
+ * standard input of the process, and the process answers each line with exactly one line on its standard output.
+ *
+ * <p>
+ * Several callers may have requests in flight at the same time, up to the given limit. Responses are matched to
+ * requests by their order. If the process terminates, or does not answer in time, it is killed and all pending
+ * requests fail; the next request starts a new process.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class PersistentExecProcess {
+
+    private final Logger logger = LoggerFactory.getLogger(PersistentExecProcess.class);
+
+    private final String commandLine;
+    private final long timeoutMillis;
+    private final Semaphore inFlight;
+
+    private final Object lock = new Object();
+    private @Nullable Worker worker;
+
+    /**
+     * @param commandLine the command to start, either separated by spaces or by "@@"
+     * @param maxInFlight maximum number of requests sent to the process without a response
+     * @param timeoutMillis maximum time to wait for a response
+     */
+    PersistentExecProcess(String commandLine, int maxInFlight, long timeoutMillis) {
+        this.commandLine = commandLine;
+        this.timeoutMillis = timeoutMillis;
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight), true);
+    }
+
+    /**
+     * Sends an input to the process and waits for its response.
+     *
+     * @param input the input, must not contain line breaks
+     * @return the response line
+     * @throws TransformationException if the process cannot be started, fails or does not respond in time
+     */
+    String transform(String input) throws TransformationException {
+        if (input.indexOf('\n') >= 0 || input.indexOf('\r') >= 0) {
+            throw new TransformationException("Input for persistent command '" + commandLine
+                    + "' must not contain line breaks");
+        }
+
+        boolean acquired = false;
+        Worker currentWorker = null;
+        try {
+            acquired = inFlight.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+            if (!acquired) {
+                throw new TransformationException("Too many pending requests for command '" + commandLine + "'");
+            }
+            currentWorker = getWorker();
+            return currentWorker.send(input).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransformationException("Interrupted while waiting for command '" + commandLine + "'", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw new TransformationException("Command '" + commandLine + "' failed: "
+                    + (cause == null ? e.getMessage() : cause.getMessage()), e);
+        } catch (TimeoutException e) {
+            // responses are matched by order, so the process can not be used any longer
+            if (currentWorker != null) {
+                currentWorker.stop("response timed out");
+            }
+            throw new TransformationException("Command '" + commandLine + "' did not respond in time", e);
+        } catch (IOException e) {
+            if (currentWorker != null) {
+                currentWorker.stop(e.getMessage());
+            }
+            throw new TransformationException("Cannot communicate with command '" + commandLine + "'", e);
+        } finally {
+            if (acquired) {
+                inFlight.release();
+            }
+        }
+    }
+
+    /**
+     * Returns true if the process has been started and is still running.
+     */
+    boolean isRunning() {
+        synchronized (lock) {
+            Worker currentWorker = worker;
+            return currentWorker != null && currentWorker.isAlive();
+        }
+    }
+
+    /**
+     * Terminates the process, if it is running.
+     */
+    void shutdown() {
+        synchronized (lock) {
+            Worker currentWorker = worker;
+            if (currentWorker != null) {
+                currentWorker.stop("shutdown");
+                worker = null;
+            }
+        }
+    }
+
+    private Worker getWorker() throws IOException {
+        synchronized (lock) {
+            Worker currentWorker = worker;
+            if (currentWorker == null || !currentWorker.isAlive()) {
+                if (currentWorker != null) {
+                    logger.info("Restarting persistent command '{}'", commandLine);
+                }
+                currentWorker = new Worker(startProcess());
+                worker = currentWorker;
+            }
+            return currentWorker;
+        }
+    }
+
+    private Process startProcess() throws IOException {
+        String[] command = commandLine.contains("@@") ? commandLine.split("@@") : commandLine.trim().split("\\s+");
+        logger.debug("Starting persistent command '{}'", commandLine);
+        return new ProcessBuilder(command).start();
+    }
+
+    /**
+     * One running instance of the process, together with its reader threads.
+     */
+    private class Worker {
+        private final Process process;
+        private final BufferedWriter writer;
+        private final Queue<CompletableFuture<String>> pending = new ConcurrentLinkedQueue<>();
+        private volatile boolean stopped = false;
+
+        Worker(Process process) {
+            this.process = process;
+            this.writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            startThread("stdout", this::readResponses);
+            startThread("stderr", this::readErrors);
+        }
+
+        boolean isAlive() {
+            return !stopped && process.isAlive();
+        }
+
+        CompletableFuture<String> send(String input) throws IOException {
+            CompletableFuture<String> response = new CompletableFuture<>();
+            // enqueuing and writing must happen in the same order for all callers
+            synchronized (writer) {
+                if (stopped) {
+                    throw new IOException("process has been stopped");
+                }
+                pending.add(response);
+                writer.write(input);
+                writer.newLine();
+                writer.flush();
+            }
+            return response;
+        }
+
+        void stop(@Nullable String reason) {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+            logger.debug("Stopping persistent command '{}': {}", commandLine, reason);
+            process.destroyForcibly();
+            IOException failure = new IOException("process terminated: " + reason);
+            synchronized (writer) {
+                CompletableFuture<String> response;
+                while ((response = pending.poll()) != null) {
+                    response.completeExceptionally(failure);
+                }
+            }
+        }
+
+        private void readResponses() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    CompletableFuture<String> response = pending.poll();
+                    if (response == null) {
+                        logger.warn("Persistent command '{}' sent unexpected output '{}'", commandLine, line);
+                    } else {
+                        response.complete(line);
+                    }
+                }
+                stop("end of output");
+            } catch (IOException e) {
+                stop(e.getMessage());
+            }
+        }
+
+        private void readErrors() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    logger.debug("Persistent command '{}' reported: {}", commandLine, line);
+                }
+            } catch (IOException e) {
+                // process terminated
+            }
+        }
+
+        private void startThread(String stream, Runnable runnable) {
+            Thread thread = new Thread(runnable, "OH-transform-exec-" + stream + "-" + commandLine);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PersistentExecProcess}, using standard unix commands
+ *
+ * @author agent - Initial contribution
+ */
+public class PersistentExecProcessTest {
+
+    private final List<PersistentExecProcess> processes = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        assumeFalse(System.getProperty("os.name").toLowerCase().startsWith("windows"));
+    }
+
+    @After
+    public void tearDown() {
+        processes.forEach(PersistentExecProcess::shutdown);
+    }
+
+    private PersistentExecProcess start(String commandLine, int maxInFlight, long timeoutMillis) {
+        PersistentExecProcess process = new PersistentExecProcess(commandLine, maxInFlight, timeoutMillis);
+        processes.add(process);
+        return process;
+    }
+
+    @Test
+    public void responsesAreMatchedToRequestsByOrder() throws Exception {
+        PersistentExecProcess process = start("cat", 4, 5000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                String input = "value " + i;
+                responses.add(executor.submit(() -> process.transform(input)));
+            }
+            for (int i = 0; i < 100; i++) {
+                assertThat(responses.get(i).get(), is("value " + i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void processIsKilledOnTimeout() throws Exception {
+        // never answers
+        PersistentExecProcess process = start("sleep 30", 1, 200);
+
+        try {
+            process.transform("value");
+            fail("Transformation should time out");
+        } catch (TransformationException e) {
+            // expected
+        }
+        assertFalse(process.isRunning());
+    }
+
+    @Test
+    public void processIsRestartedAfterTermination() throws Exception {
+        // answers one line, then terminates
+        PersistentExecProcess process = start("sh@@-c@@read line; echo \"$line\"", 1, 5000);
+
+        assertThat(process.transform("first"), is("first"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (process.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(process.isRunning());
+
+        assertThat(process.transform("second"), is("second"));
+    }
+
+    @Test(expected = TransformationException.class)
+    public void lineBreaksAreRejected() throws Exception {
+        start("cat", 1, 5000).transform("a\nb");
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.transform.TransformationException;
+
+/**
+ * Pool of compiled instances of a single JavaScript file. Script engines are not thread-safe, so every instance is
+ * compiled on its own engine and is used by only one thread at a time. Instances are created lazily up to the
+ * configured pool size.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class CompiledScriptPool {
+
+    private final ScriptEngineManager manager;
+    private final String filename;
+    private final String source;
+    private final int maxSize;
+
+    private final LinkedBlockingQueue<CompiledScript> idleScripts = new LinkedBlockingQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final LongAdder callCount = new LongAdder();
+    private final LongAdder executionNanos = new LongAdder();
+
+    CompiledScriptPool(ScriptEngineManager manager, String filename, String source, int maxSize)
+            throws ScriptException {
+        this.manager = manager;
+        this.filename = filename;
+        this.source = source;
+        this.maxSize = Math.max(1, maxSize);
+        // compile one instance up front, so that syntax errors are reported when the script is loaded
+        idleScripts.add(compile());
+        size.incrementAndGet();
+    }
+
+    /**
+     * Takes an instance from the pool, compiling a new one if none is idle and the pool is not full yet. Otherwise
+     * waits for an instance to be released.
+     *
+     * @param timeoutMillis maximum time to wait for an instance to be released
+     * @return a compiled instance which must be given back with {@link #release(CompiledScript, long)}
+     * @throws ScriptException if a new instance cannot be compiled
+     * @throws InterruptedException if interrupted while waiting for an instance
+     * @throws TransformationException if no instance was released in time
+     */
+    CompiledScript borrow(long timeoutMillis) throws ScriptException, InterruptedException, TransformationException {
+        CompiledScript script = idleScripts.poll();
+        if (script != null) {
+            return script;
+        }
+        int currentSize = size.get();
+        while (currentSize < maxSize) {
+            if (size.compareAndSet(currentSize, currentSize + 1)) {
+                try {
+                    return compile();
+                } catch (ScriptException | RuntimeException e) {
+                    size.decrementAndGet();
+                    throw e;
+                }
+            }
+            currentSize = size.get();
+        }
+        script = idleScripts.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        if (script == null) {
+            throw new TransformationException("All " + maxSize + " instances of JavaScript " + filename
+                    + " are busy, no instance was released within " + timeoutMillis + " ms.");
+        }
+        return script;
+    }
+
+    /**
+     * Gives an instance back to the pool and records the execution time.
+     *
+     * @param script the instance returned by {@link #borrow()}
+     * @param elapsedNanos the execution time of the script
+     */
+    void release(CompiledScript script, long elapsedNanos) {
+        callCount.increment();
+        executionNanos.add(elapsedNanos);
+        idleScripts.offer(script);
+    }
+
+    long getCallCount() {
+        return callCount.sum();
+    }
+
+    long getExecutionMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(executionNanos.sum());
+    }
+
+    int getSize() {
+        return size.get();
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledScriptPool [filename=" + filename + ", size=" + getSize() + ", calls=" + getCallCount()
+                + ", executionMillis=" + getExecutionMillis() + "]";
+    }
+
+    private CompiledScript compile() throws ScriptException {
+        return ((Compilable) manager.getEngineByName("javascript")).compile(source);
+    }
+}
@@ -13,77 +13,117 @@
 package org.openhab.transform.javascript.internal;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-import javax.script.Compilable;
 import javax.script.CompiledScript;
-import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Simple cache for compiled JavaScript files.
  *
+ * <p>
+ * Each file is kept as a {@link CompiledScriptPool} of up to <code>poolSize</code> compiled instances, so that
+ * transformations with the same script can run concurrently. Lookups in the cache do not lock.
+ *
  * @author Thomas Kordelle - pre compiled scripts
  *
  */
 @NonNullByDefault
-@Component(service = JavaScriptEngineManager.class)
+@Component(service = JavaScriptEngineManager.class, configurationPid = "org.openhab.transform.javascript")
 public class JavaScriptEngineManager {
 
+    private static final String CONFIG_POOL_SIZE = "poolSize";
+    private static final int DEFAULT_POOL_SIZE = 2;
+
     private final Logger logger = LoggerFactory.getLogger(JavaScriptEngineManager.class);
     private final ScriptEngineManager manager = new ScriptEngineManager();
-    /* keep memory foot print low. max 2 concurrent threads are estimated */
-    private final Map<String, CompiledScript> compiledScriptMap = new ConcurrentHashMap<>(4, 0.5f, 2);
+    private final Map<String, CompiledScriptPool> compiledScriptMap = new ConcurrentHashMap<>();
+
+    private volatile int poolSize = DEFAULT_POOL_SIZE;
+
+    @Activate
+    protected void activate(@Nullable Map<String, Object> config) {
+        modified(config);
+    }
+
+    @Modified
+    protected void modified(@Nullable Map<String, Object> config) {
+        Object value = config == null ? null : config.get(CONFIG_POOL_SIZE);
+        int newPoolSize = DEFAULT_POOL_SIZE;
+        if (value != null) {
+            try {
+                newPoolSize = Math.max(1, Integer.parseInt(value.toString().trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid JavaScript pool size '{}', using {}", value, DEFAULT_POOL_SIZE);
+            }
+        }
+        if (newPoolSize != poolSize) {
+            poolSize = newPoolSize;
+            // pools are recreated with the new size on next use
+            compiledScriptMap.clear();
+        }
+    }
 
     /**
-     * Get a pre compiled script {@link CompiledScript} from cache. If it is not in the cache, then load it from
-     * storage and put a pre compiled version into the cache.
+     * Get the pool of pre compiled scripts {@link CompiledScript} from cache. If it is not in the cache, then load it
+     * from storage and put a new pool into the cache.
      *
      * @param filename name of the JavaScript file to load
-     * @return a pre compiled script {@link CompiledScript}
+     * @return the pool of pre compiled scripts {@link CompiledScriptPool}
      * @throws TransformationException if compile of JavaScript failed
      */
-    protected CompiledScript getScript(final String filename) throws TransformationException {
-        synchronized (compiledScriptMap) {
-            if (compiledScriptMap.containsKey(filename)) {
-                logger.debug("Loading JavaScript {} from cache.", filename);
-                return compiledScriptMap.get(filename);
-            } else {
-                final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
-                logger.debug("Loading script {} from storage ", path);
-                try (final Reader reader = new InputStreamReader(new FileInputStream(path))) {
-                    final ScriptEngine engine = manager.getEngineByName("javascript");
-                    final CompiledScript cScript = ((Compilable) engine).compile(reader);
-                    logger.debug("Putting compiled JavaScript {} to cache.", cScript);
-                    compiledScriptMap.put(filename, cScript);
-                    return cScript;
-                } catch (IOException | ScriptException e) {
-                    throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(),
-                            e);
-                }
+    protected CompiledScriptPool getScript(final String filename) throws TransformationException {
+        CompiledScriptPool pool = compiledScriptMap.get(filename);
+        if (pool != null) {
+            logger.debug("Loading JavaScript {} from cache.", filename);
+            return pool;
+        }
+
+        final String path = getSourcePath() + filename;
+        logger.debug("Loading script {} from storage ", path);
+        try {
+            final String source = new String(Files.readAllBytes(Paths.get(path)), Charset.defaultCharset());
+            final CompiledScriptPool newPool = new CompiledScriptPool(manager, filename, source, poolSize);
+            pool = compiledScriptMap.putIfAbsent(filename, newPool);
+            if (pool == null) {
+                logger.debug("Putting compiled JavaScript {} to cache.", filename);
+                pool = newPool;
             }
+            return pool;
+        } catch (IOException | ScriptException e) {
+            throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Returns the path of the folder containing the scripts, including the trailing separator.
+     */
+    protected String getSourcePath() {
+        return TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator;
+    }
+
     /**
      * remove a pre compiled script from cache.
      *
      * @param fileName name of the script file to remove
      */
     protected void removeFromCache(String fileName) {
-        logger.debug("Removing JavaScript {} from cache.", fileName);
-        compiledScriptMap.remove(fileName);
+        CompiledScriptPool pool = compiledScriptMap.remove(fileName);
+        logger.debug("Removing JavaScript {} from cache: {}", fileName, pool);
     }
 }
@@ -36,6 +36,11 @@ import org.slf4j.LoggerFactory;
 @Component(immediate = true, property = { "smarthome.transform=JS" })
 public class JavaScriptTransformationService implements TransformationService {
 
+    /**
+     * Maximum time to wait for an instance of the script, when all of them are in use
+     */
+    private static final long BORROW_TIMEOUT_MILLIS = 5000;
+
     private Logger logger = LoggerFactory.getLogger(JavaScriptTransformationService.class);
     private @NonNullByDefault({}) JavaScriptEngineManager manager;
 
@@ -71,13 +76,23 @@ public class JavaScriptTransformationService implements TransformationService {
         String result = "";
 
         try {
-            final CompiledScript cScript = manager.getScript(filename);
-            final Bindings bindings = cScript.getEngine().createBindings();
-            bindings.put("input", source);
-            result = String.valueOf(cScript.eval(bindings));
+            final CompiledScriptPool pool = manager.getScript(filename);
+            final CompiledScript cScript = pool.borrow(BORROW_TIMEOUT_MILLIS);
+            final long evalStartTime = System.nanoTime();
+            try {
+                final Bindings bindings = cScript.getEngine().createBindings();
+                bindings.put("input", source);
+                result = String.valueOf(cScript.eval(bindings));
+            } finally {
+                pool.release(cScript, System.nanoTime() - evalStartTime);
+                logger.trace("JavaScript statistics: {}", pool);
+            }
             return result;
         } catch (ScriptException e) {
             throw new TransformationException("An error occurred while executing script. " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransformationException("Interrupted while waiting for JavaScript engine.", e);
         } finally {
             logger.trace("JavaScript execution elapsed {} ms. Result: {}", System.currentTimeMillis() - startTime,
                     result);
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.junit.Test;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class CompiledScriptPoolTest {
+
+    private final ScriptEngineManager manager = new ScriptEngineManager();
+
+    @Test
+    public void instancesAreCompiledUpToMaxSize() throws Exception {
+        CompiledScriptPool pool = new CompiledScriptPool(manager, "test.js", "input", 2);
+        assertThat(pool.getSize(), is(1));
+
+        CompiledScript first = pool.borrow(100);
+        CompiledScript second = pool.borrow(100);
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(pool.getSize(), is(2));
+
+        pool.release(first, 0);
+        assertThat(pool.borrow(100), is(sameInstance(first)));
+        assertThat(pool.getSize(), is(2));
+        assertThat(pool.getCallCount(), is(1L));
+    }
+
+    @Test
+    public void borrowTimesOutWhenAllInstancesAreBusy() throws Exception {
+        CompiledScriptPool pool = new CompiledScriptPool(manager, "test.js", "input", 1);
+        pool.borrow(100);
+
+        long start = System.currentTimeMillis();
+        try {
+            pool.borrow(100);
+            fail("Borrowing should time out");
+        } catch (TransformationException e) {
+            assertThat(System.currentTimeMillis() - start >= 100, is(true));
+        }
+    }
+
+    @Test
+    public void releasedInstanceIsHandedToWaitingThread() throws Exception {
+        CompiledScriptPool pool = new CompiledScriptPool(manager, "test.js", "input", 1);
+        CompiledScript script = pool.borrow(100);
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pool.release(script, 0);
+        });
+        releaser.start();
+
+        assertThat(pool.borrow(5000), is(sameInstance(script)));
+        releaser.join();
+    }
+
+    @Test(expected = ScriptException.class)
+    public void syntaxErrorsAreReportedWhenLoaded() throws Exception {
+        new CompiledScriptPool(manager, "test.js", "input +", 2);
+    }
+}
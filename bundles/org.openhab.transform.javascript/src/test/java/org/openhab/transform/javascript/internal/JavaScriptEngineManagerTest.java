@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class JavaScriptEngineManagerTest {
+
+    private static final String FILENAME = "test.js";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private JavaScriptEngineManager manager;
+
+    @Before
+    public void setUp() {
+        manager = new JavaScriptEngineManager() {
+            @Override
+            protected String getSourcePath() {
+                return folder.getRoot().getAbsolutePath() + File.separator;
+            }
+        };
+        manager.activate(Collections.<String, Object> singletonMap("poolSize", 2));
+    }
+
+    private void writeScript(String source) throws IOException {
+        Files.write(new File(folder.getRoot(), FILENAME).toPath(), source.getBytes(Charset.defaultCharset()));
+    }
+
+    private String eval(CompiledScriptPool pool, String input) throws Exception {
+        CompiledScript script = pool.borrow(100);
+        try {
+            Bindings bindings = script.getEngine().createBindings();
+            bindings.put("input", input);
+            return String.valueOf(script.eval(bindings));
+        } finally {
+            pool.release(script, 0);
+        }
+    }
+
+    @Test
+    public void scriptIsCompiledOnce() throws Exception {
+        writeScript("input + 'a'");
+        CompiledScriptPool pool = manager.getScript(FILENAME);
+
+        writeScript("input + 'b'");
+        assertThat(manager.getScript(FILENAME), is(sameInstance(pool)));
+        assertThat(eval(pool, "x"), is("xa"));
+    }
+
+    @Test
+    public void reloadedScriptReplacesCachedInstances() throws Exception {
+        writeScript("input + 'a'");
+        CompiledScriptPool pool = manager.getScript(FILENAME);
+        // compile the second instance of the pool before the script changes
+        CompiledScript borrowed = pool.borrow(100);
+        assertThat(eval(pool, "x"), is("xa"));
+        pool.release(borrowed, 0);
+
+        writeScript("input + 'b'");
+        manager.removeFromCache(FILENAME);
+
+        CompiledScriptPool reloaded = manager.getScript(FILENAME);
+        assertThat(reloaded, is(not(sameInstance(pool))));
+        assertThat(eval(reloaded, "x"), is("xb"));
+        assertThat(eval(reloaded, "y"), is("yb"));
+    }
+}
@@ -14,11 +14,14 @@ package org.openhab.transform.jinja.internal;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -31,11 +34,21 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hubspot.jinjava.Jinjava;
+import com.hubspot.jinjava.interpret.Context;
+import com.hubspot.jinjava.interpret.FatalTemplateErrorsException;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.interpret.TemplateError;
+import com.hubspot.jinjava.interpret.TemplateError.ErrorType;
+import com.hubspot.jinjava.tree.Node;
 
 /**
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by Jinja2 Expressions.
  *
+ * <p>
+ * Parsed templates are cached by their text. The incoming value is only parsed as JSON if the template refers to
+ * <code>value_json</code>.
+ *
  * @author Jochen Klein - Initial contribution
  *
  */
@@ -45,8 +58,25 @@ public class JinjaTransformationService implements TransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(JinjaTransformationService.class);
 
+    private static final String VALUE_JSON = "value_json";
+
+    /** maximum number of parsed templates kept in the cache */
+    static final int MAX_CACHE_SIZE = 256;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private Jinjava jinjava = new Jinjava();
 
+    private final Map<String, ParsedTemplate> templateCache = Collections
+            .synchronizedMap(new LinkedHashMap<String, ParsedTemplate>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.@Nullable Entry<String, ParsedTemplate> eldest) {
+                    return size() > MAX_CACHE_SIZE;
+                }
+            });
+
     /**
      * Transforms the input <code>value</code> by Jinja template.
      *
@@ -58,23 +88,68 @@ public class JinjaTransformationService implements TransformationService {
     public @Nullable String transform(String template, String value) throws TransformationException {
         logger.debug("about to transform '{}' by the function '{}'", value, template);
 
+        ParsedTemplate parsedTemplate = getParsedTemplate(template);
+
         Map<String, @Nullable Object> bindings = new HashMap<>();
         bindings.put("value", value);
 
-        try {
-            JsonNode tree = new ObjectMapper().readTree(value);
-            bindings.put("value_json", toObject(tree));
-        } catch (IOException e) {
-            // ok, then value_json is null...
+        if (parsedTemplate.usesValueJson) {
+            try {
+                JsonNode tree = OBJECT_MAPPER.readTree(value);
+                bindings.put(VALUE_JSON, toObject(tree));
+            } catch (IOException e) {
+                // ok, then value_json is null...
+            }
         }
 
-        String transformationResult = jinjava.render(template, bindings);
+        String transformationResult = render(parsedTemplate, bindings);
 
         logger.debug("transformation resulted in '{}'", transformationResult);
 
         return transformationResult;
     }
 
+    private ParsedTemplate getParsedTemplate(String template) throws TransformationException {
+        ParsedTemplate parsedTemplate = templateCache.get(template);
+        if (parsedTemplate == null) {
+            JinjavaInterpreter interpreter = new JinjavaInterpreter(jinjava, jinjava.getGlobalContext(),
+                    jinjava.getGlobalConfig());
+            Node root = interpreter.parse(template);
+            List<TemplateError> fatalErrors = getFatalErrors(interpreter);
+            if (!fatalErrors.isEmpty()) {
+                throw new TransformationException("the given template '" + template + "' is invalid",
+                        new FatalTemplateErrorsException(template, fatalErrors));
+            }
+            parsedTemplate = new ParsedTemplate(template, root, template.contains(VALUE_JSON));
+            templateCache.put(template, parsedTemplate);
+        }
+        return parsedTemplate;
+    }
+
+    /**
+     * Renders a parsed template the same way {@link Jinjava#render(String, Map)} renders the template text.
+     */
+    private String render(ParsedTemplate parsedTemplate, Map<String, @Nullable Object> bindings) {
+        Context context = new Context(jinjava.getGlobalContext(), bindings);
+        JinjavaInterpreter interpreter = new JinjavaInterpreter(jinjava, context, jinjava.getGlobalConfig());
+        JinjavaInterpreter.pushCurrent(interpreter);
+        try {
+            String result = interpreter.render(parsedTemplate.root);
+            List<TemplateError> fatalErrors = getFatalErrors(interpreter);
+            if (!fatalErrors.isEmpty()) {
+                throw new FatalTemplateErrorsException(parsedTemplate.template, fatalErrors);
+            }
+            return result;
+        } finally {
+            JinjavaInterpreter.popCurrent();
+        }
+    }
+
+    private static List<TemplateError> getFatalErrors(JinjavaInterpreter interpreter) {
+        return interpreter.getErrors().stream().filter(error -> error.getSeverity() == ErrorType.FATAL)
+                .collect(Collectors.toList());
+    }
+
     private static @Nullable Object toObject(JsonNode node) {
         switch (node.getNodeType()) {
             case ARRAY: {
@@ -104,4 +179,19 @@ public class JinjaTransformationService implements TransformationService {
                 return null;
         }
     }
+
+    /**
+     * A template parsed into its node tree. The tree is not modified during rendering and can be shared.
+     */
+    private static class ParsedTemplate {
+        final String template;
+        final Node root;
+        final boolean usesValueJson;
+
+        ParsedTemplate(String template, Node root, boolean usesValueJson) {
+            this.template = template;
+            this.root = root;
+            this.usesValueJson = usesValueJson;
+        }
+    }
 }
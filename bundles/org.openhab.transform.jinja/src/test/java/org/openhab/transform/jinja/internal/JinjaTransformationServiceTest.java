@@ -58,4 +58,16 @@ public class JinjaTransformationServiceTest {
         // Asserts
         Assert.assertEquals("Hello world!", transformedResponse);
     }
+
+    @Test
+    public void testCachedTemplateWithDifferentValues() throws TransformationException {
+        String template = "{{value_json.state | upper}}";
+        // method under test
+        String first = processor.transform(template, "{\"state\":\"on\"}");
+        String second = processor.transform(template, "{\"state\":\"off\"}");
+
+        // Asserts
+        Assert.assertEquals("ON", first);
+        Assert.assertEquals("OFF", second);
+    }
 }
@@ -12,7 +12,11 @@
  */
 package org.openhab.transform.jsonpath.internal;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -24,6 +28,7 @@ import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
@@ -33,6 +38,10 @@ import com.jayway.jsonpath.PathNotFoundException;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by JSonPath Expressions.
  *
+ * <p>
+ * Compiled expressions are cached, and so are recently parsed documents for a short time: when a single JSON
+ * payload is transformed by many channels in a row, it is only parsed once.
+ *
  * @author Gaël L'hopital
  * @author Sebastian Janzen
  *
@@ -43,6 +52,19 @@ public class JSonPathTransformationService implements TransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
+    /** maximum number of compiled expressions kept in the cache */
+    static final int MAX_PATH_CACHE_SIZE = 256;
+
+    /** maximum number of parsed documents kept in the cache */
+    static final int MAX_DOCUMENT_CACHE_SIZE = 8;
+
+    /** time after which a parsed document is no longer served from the cache */
+    static final long DOCUMENT_CACHE_EXPIRY_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private final Map<String, JsonPath> pathCache = createLruCache(MAX_PATH_CACHE_SIZE);
+
+    private final Map<String, ParsedDocument> documentCache = createLruCache(MAX_DOCUMENT_CACHE_SIZE);
+
     /**
      * Transforms the input <code>source</code> by JSonPath expression.
      *
@@ -60,7 +82,7 @@ public class JSonPathTransformationService implements TransformationService {
         logger.debug("about to transform '{}' by the function '{}'", source, jsonPathExpression);
 
         try {
-            Object transformationResult = JsonPath.read(source, jsonPathExpression);
+            Object transformationResult = getPath(jsonPathExpression).read(getDocument(source));
             logger.debug("transformation resulted in '{}'", transformationResult);
             if (transformationResult == null) {
                 return null;
@@ -76,6 +98,51 @@ public class JSonPathTransformationService implements TransformationService {
         }
     }
 
+    private JsonPath getPath(String jsonPathExpression) {
+        JsonPath path = pathCache.get(jsonPathExpression);
+        if (path == null) {
+            path = JsonPath.compile(jsonPathExpression);
+            pathCache.put(jsonPathExpression, path);
+        }
+        return path;
+    }
+
+    /**
+     * Returns the parsed representation of the given JSON source. A document parsed less than
+     * {@link #DOCUMENT_CACHE_EXPIRY_NANOS} ago is served from the cache. The parsed document is only ever read, so
+     * it can safely be shared between concurrent transformations.
+     */
+    Object getDocument(String source) {
+        long now = System.nanoTime();
+        ParsedDocument document = documentCache.get(source);
+        if (document == null || now - document.parsedAt > DOCUMENT_CACHE_EXPIRY_NANOS) {
+            document = new ParsedDocument(Configuration.defaultConfiguration().jsonProvider().parse(source), now);
+            documentCache.put(source, document);
+        }
+        return document.json;
+    }
+
+    private static <V> Map<String, V> createLruCache(int maxSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<String, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.@Nullable Entry<String, V> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    private static class ParsedDocument {
+        final Object json;
+        final long parsedAt;
+
+        ParsedDocument(Object json, long parsedAt) {
+            this.json = json;
+            this.parsedAt = parsedAt;
+        }
+    }
+
     private String flattenList(List<?> list) {
         if (list.size() == 1) {
             return list.get(0).toString();
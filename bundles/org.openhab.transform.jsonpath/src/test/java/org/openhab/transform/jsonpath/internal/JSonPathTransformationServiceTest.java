@@ -12,7 +12,7 @@
  */
 package org.openhab.transform.jsonpath.internal;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Assert;
@@ -128,4 +128,11 @@ public class JSonPathTransformationServiceTest {
         String transformedResponse = processor.transform("$.data", json);
         assertEquals(list, transformedResponse);
     }
+
+    @Test
+    public void testDocumentIsParsedOnce() throws TransformationException {
+        assertSame(processor.getDocument(jsonArray), processor.getDocument(jsonArray));
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+        assertEquals("alice", processor.transform("$[1].name", jsonArray));
+    }
 }
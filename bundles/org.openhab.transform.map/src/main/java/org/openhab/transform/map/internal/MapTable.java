@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.map.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Immutable lookup table of a map file. Contrary to {@link Properties}, which is a synchronized {@link java.util.Hashtable},
+ * lookups do not lock. Equal values are stored only once.
+ *
+ * The table counts lookups that found an entry (hits), fell back to the default entry or found nothing (misses).
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class MapTable {
+
+    private final Map<String, String> entries;
+    private final @Nullable String defaultValue;
+    private final long loadMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder defaults = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param properties the mappings as loaded from the file
+     * @param loadMillis the time spent to load the file
+     */
+    MapTable(Properties properties, long loadMillis) {
+        final Map<String, String> values = new HashMap<>();
+        final Map<String, String> table = new HashMap<>((int) (properties.size() / 0.75f) + 1);
+        for (String key : properties.stringPropertyNames()) {
+            final String value = properties.getProperty(key);
+            final String existing = values.putIfAbsent(value, value);
+            table.put(key, existing == null ? value : existing);
+        }
+        this.defaultValue = table.remove("");
+        this.entries = table;
+        this.loadMillis = loadMillis;
+    }
+
+    /**
+     * Looks up the target of the given source.
+     *
+     * @param source the source
+     * @return the target, the default target if the source is not mapped, or <code>null</code> if there is neither
+     */
+    @Nullable
+    String get(String source) {
+        final String target = entries.get(source);
+        if (target != null) {
+            hits.increment();
+            return target;
+        }
+        if (defaultValue != null) {
+            defaults.increment();
+        } else {
+            misses.increment();
+        }
+        return defaultValue;
+    }
+
+    int size() {
+        return entries.size() + (defaultValue == null ? 0 : 1);
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getDefaults() {
+        return defaults.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "MapTable [entries=" + size() + ", loadMillis=" + loadMillis + ", hits=" + getHits() + ", defaults="
+                + getDefaults() + ", misses=" + getMisses() + "]";
+    }
+}
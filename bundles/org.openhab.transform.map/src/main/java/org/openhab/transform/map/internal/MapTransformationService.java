@@ -31,7 +31,7 @@ import org.slf4j.LoggerFactory;
  * @author Gaël L'hopital - Make it localizable
  */
 @Component(immediate = true, service = TransformationService.class, property = { "smarthome.transform=MAP" })
-public class MapTransformationService extends AbstractFileTransformationService<Properties> {
+public class MapTransformationService extends AbstractFileTransformationService<MapTable> {
 
     private final Logger logger = LoggerFactory.getLogger(MapTransformationService.class);
 
@@ -41,29 +41,30 @@ public class MapTransformationService extends AbstractFileTransformationService<
      * a file which is stored under the 'configurations/transform' folder. This file should be in property syntax, i.e.
      * simple lines with "key=value" pairs. To organize the various transformations one might use subfolders.
      *
-     * @param properties the list of properties which contains the key value pairs for the mapping.
+     * @param table the table which contains the key value pairs for the mapping.
      * @param source the input to transform
      */
     @Override
-    protected String internalTransform(Properties properties, String source) throws TransformationException {
-        String target = properties.getProperty(source);
+    protected String internalTransform(MapTable table, String source) throws TransformationException {
+        String target = table.get(source);
 
         if (target == null) {
-            target = properties.getProperty("");
-            if (target == null) {
-                throw new TransformationException("Target value not found in map for '" + source + "'");
-            }
+            throw new TransformationException("Target value not found in map for '" + source + "'");
         }
 
         logger.debug("Transformation resulted in '{}'", target);
+        logger.trace("Map statistics: {}", table);
         return target;
     }
 
     @Override
-    protected Properties internalLoadTransform(String filename) throws TransformationException {
-        Properties result = new Properties();
+    protected MapTable internalLoadTransform(String filename) throws TransformationException {
+        final long startTime = System.currentTimeMillis();
+        Properties properties = new Properties();
         try (FileReader reader = new FileReader(filename)) {
-            result.load(reader);
+            properties.load(reader);
+            MapTable result = new MapTable(properties, System.currentTimeMillis() - startTime);
+            logger.debug("Loaded map file '{}': {}", filename, result);
             return result;
         } catch (IOException e) {
             throw new TransformationException("An error occurred while opening file.", e);
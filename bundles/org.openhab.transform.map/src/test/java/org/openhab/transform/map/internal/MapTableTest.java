@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.map.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class MapTableTest {
+
+    private static Properties properties(String... keysAndValues) {
+        Properties properties = new Properties();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            properties.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return properties;
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        MapTable table = new MapTable(properties("CLOSED", "zu", "OPEN", "offen"), 0);
+
+        assertEquals("zu", table.get("CLOSED"));
+        assertEquals("offen", table.get("OPEN"));
+        assertEquals("zu", table.get("CLOSED"));
+        assertNull(table.get("UNKNOWN"));
+
+        assertEquals(2, table.size());
+        assertEquals(3, table.getHits());
+        assertEquals(0, table.getDefaults());
+        assertEquals(1, table.getMisses());
+    }
+
+    @Test
+    public void testDefaults() {
+        MapTable table = new MapTable(properties("CLOSED", "zu", "", "unbekannt"), 0);
+
+        assertEquals("zu", table.get("CLOSED"));
+        assertEquals("unbekannt", table.get("UNKNOWN"));
+        assertEquals("unbekannt", table.get("OTHER"));
+        assertEquals("unbekannt", table.get(""));
+
+        assertEquals(2, table.size());
+        assertEquals(1, table.getHits());
+        assertEquals(3, table.getDefaults());
+        assertEquals(0, table.getMisses());
+    }
+
+    @Test
+    public void testToStringReportsCounters() {
+        MapTable table = new MapTable(properties("CLOSED", "zu"), 5);
+
+        table.get("CLOSED");
+        table.get("UNKNOWN");
+
+        assertEquals("MapTable [entries=1, loadMillis=5, hits=1, defaults=0, misses=1]", table.toString());
+    }
+}
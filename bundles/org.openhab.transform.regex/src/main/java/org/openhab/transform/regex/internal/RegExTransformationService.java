@@ -12,8 +12,12 @@
  */
 package org.openhab.transform.regex.internal;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -30,6 +34,10 @@ import org.slf4j.LoggerFactory;
  * <p>
  * <b>Note:</b> the given Regular Expression must contain exactly one group!
  *
+ * <p>
+ * Compiled expressions are kept in a bounded LRU cache, so that repeatedly used expressions (i.e. those used by
+ * profiles and item bindings) are only compiled once.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
@@ -40,6 +48,19 @@ public class RegExTransformationService implements TransformationService {
 
     private static final Pattern SUBSTR_PATTERN = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
 
+    /** maximum number of compiled expressions kept in the cache */
+    static final int MAX_CACHE_SIZE = 256;
+
+    private final Map<String, CompiledExpression> cache = Collections
+            .synchronizedMap(new LinkedHashMap<String, CompiledExpression>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.@Nullable Entry<String, CompiledExpression> eldest) {
+                    return size() > MAX_CACHE_SIZE;
+                }
+            });
+
     @Override
     public @Nullable String transform(String regExpression, String source) throws TransformationException {
         if (regExpression == null || source == null) {
@@ -50,23 +71,20 @@ public class RegExTransformationService implements TransformationService {
 
         String result = "";
 
-        Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
-        if (substMatcher.matches()) {
+        CompiledExpression expression = getCompiledExpression(regExpression);
+        String substitution = expression.substitution;
+        if (substitution != null) {
             logger.debug("Using substitution form of regex transformation");
-            String regex = substMatcher.group(1);
-            String substitution = substMatcher.group(2);
-            String options = substMatcher.group(3);
-            if (options.equals("g")) {
-                result = source.trim().replaceAll(regex, substitution);
+            Matcher substMatcher = expression.pattern.matcher(source.trim());
+            if (expression.global) {
+                result = substMatcher.replaceAll(substitution);
             } else {
-                result = source.trim().replaceFirst(regex, substitution);
-            }
-            if (result != null) {
-                return result;
+                result = substMatcher.replaceFirst(substitution);
             }
+            return result;
         }
 
-        Matcher matcher = Pattern.compile("^" + regExpression + "$", Pattern.DOTALL).matcher(source.trim());
+        Matcher matcher = expression.pattern.matcher(source.trim());
         if (!matcher.matches()) {
             logger.debug(
                     "the given regex '^{}$' doesn't match the given content '{}' -> couldn't compute transformation",
@@ -94,4 +112,53 @@ public class RegExTransformationService implements TransformationService {
 
         return result;
     }
+
+    /**
+     * Returns the compiled form of the given expression, compiling and caching it if it is not known yet.
+     *
+     * @param regExpression the expression as passed to {@link #transform(String, String)}
+     * @return the compiled expression
+     * @throws TransformationException if the expression is not a valid regular expression
+     */
+    CompiledExpression getCompiledExpression(String regExpression) throws TransformationException {
+        CompiledExpression expression = cache.get(regExpression);
+        if (expression == null) {
+            expression = compile(regExpression);
+            cache.put(regExpression, expression);
+        }
+        return expression;
+    }
+
+    int getCacheSize() {
+        return cache.size();
+    }
+
+    private static CompiledExpression compile(String regExpression) throws TransformationException {
+        try {
+            Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
+            if (substMatcher.matches()) {
+                return new CompiledExpression(Pattern.compile(substMatcher.group(1)), substMatcher.group(2),
+                        "g".equals(substMatcher.group(3)));
+            }
+            return new CompiledExpression(Pattern.compile("^" + regExpression + "$", Pattern.DOTALL), null, false);
+        } catch (PatternSyntaxException e) {
+            throw new TransformationException("the given regex '" + regExpression + "' is invalid", e);
+        }
+    }
+
+    /**
+     * Immutable holder of a compiled expression. If {@link #substitution} is set, the expression is of the
+     * substitution form {@code s/regex/substitution/options}, otherwise it is a plain matching expression.
+     */
+    static final class CompiledExpression {
+        final Pattern pattern;
+        final @Nullable String substitution;
+        final boolean global;
+
+        CompiledExpression(Pattern pattern, @Nullable String substitution, boolean global) {
+            this.pattern = pattern;
+            this.substitution = substitution;
+            this.global = global;
+        }
+    }
 }
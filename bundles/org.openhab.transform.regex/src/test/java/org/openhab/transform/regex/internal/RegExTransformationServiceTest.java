@@ -12,7 +12,7 @@
  */
 package org.openhab.transform.regex.internal;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Before;
@@ -75,4 +75,30 @@ public class RegExTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("varX=12 varY=54 ", transformedResponse);
     }
+
+    @Test
+    public void testTransformByRegex_compiledExpressionIsCached() throws TransformationException {
+        String regex = "s/([A-Z]+)([0-9]+),*/var$1=$2 /g";
+        processor.transform(regex, "X12,Y54");
+
+        // Asserts
+        assertSame(processor.getCompiledExpression(regex), processor.getCompiledExpression(regex));
+        assertEquals("varA=1 ", processor.transform(regex, "A1"));
+        assertEquals(1, processor.getCacheSize());
+    }
+
+    @Test
+    public void testTransformByRegex_cacheIsBounded() throws TransformationException {
+        for (int i = 0; i < RegExTransformationService.MAX_CACHE_SIZE + 10; i++) {
+            processor.transform("(" + i + ").*", i + "x");
+        }
+
+        // Asserts
+        assertEquals(RegExTransformationService.MAX_CACHE_SIZE, processor.getCacheSize());
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testTransformByRegex_invalidExpression() throws TransformationException {
+        processor.transform("(.*", source);
+    }
 }
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.scale.internal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.BinaryOperator;
+
+/**
+ * Read-only lookup structure of a scale file, built once when the file is loaded.
+ *
+ * The limits of all ranges split the number line into elementary segments: the limits themselves and the open
+ * intervals between them. For each segment the label of the first range in file order containing it is computed in
+ * advance, so a lookup is a binary search over the sorted limits. Inputs are first located using their
+ * <code>double</code> value; only when it coincides with a limit the exact {@link BigDecimal} comparison is used.
+ *
+ * The format string is split into literal and placeholder parts in advance as well.
+ *
+ * @author agent - Initial contribution
+ */
+class ScaleTable {
+
+    private final BigDecimal[] limits;
+    private final double[] doubleLimits;
+    /** labels of the segments: index 2i+1 is limit i, index 2i is the open interval below limit i */
+    private final String[] labels;
+    private final String nonNumericLabel;
+    private final List<BinaryOperator<String>> formatParts;
+
+    /**
+     * @param ranges the ranges and their labels, in file order
+     * @param nonNumericLabel label to be used for non numeric input, may be <code>null</code>
+     * @param format format of the result, containing the placeholders <code>valuePlaceholder</code> and
+     *            <code>labelPlaceholder</code>
+     */
+    ScaleTable(Map<Range, String> ranges, String nonNumericLabel, String format, String valuePlaceholder,
+            String labelPlaceholder) {
+        final TreeSet<BigDecimal> sortedLimits = new TreeSet<>();
+        for (Range range : ranges.keySet()) {
+            if (range.min != null) {
+                sortedLimits.add(range.min);
+            }
+            if (range.max != null) {
+                sortedLimits.add(range.max);
+            }
+        }
+        this.limits = sortedLimits.toArray(new BigDecimal[sortedLimits.size()]);
+        this.doubleLimits = new double[limits.length];
+        for (int i = 0; i < limits.length; i++) {
+            doubleLimits[i] = limits[i].doubleValue();
+        }
+
+        this.labels = new String[2 * limits.length + 1];
+        for (int segment = 0; segment < labels.length; segment++) {
+            for (Map.Entry<Range, String> entry : ranges.entrySet()) {
+                if (containsSegment(entry.getKey(), segment)) {
+                    labels[segment] = entry.getValue();
+                    break;
+                }
+            }
+        }
+
+        this.nonNumericLabel = nonNumericLabel;
+        this.formatParts = parseFormat(format, valuePlaceholder, labelPlaceholder);
+    }
+
+    /**
+     * Looks up the label of the range a numeric input belongs to.
+     *
+     * @param source the input
+     * @return the label of the first matching range, or <code>null</code> if no range matches
+     * @throws NumberFormatException if the input is not a number
+     */
+    String getLabel(String source) {
+        if (isPlainNumber(source)) {
+            final double value = Double.parseDouble(source);
+            if (!Double.isInfinite(value)) {
+                final int index = Arrays.binarySearch(doubleLimits, value);
+                if (index < 0) {
+                    return labels[2 * (-index - 1)];
+                }
+            }
+        }
+        return getLabel(new BigDecimal(source));
+    }
+
+    /**
+     * Looks up the label of the range a value belongs to.
+     *
+     * @param value the value
+     * @return the label of the first matching range, or <code>null</code> if no range matches
+     */
+    String getLabel(BigDecimal value) {
+        final int index = Arrays.binarySearch(limits, value);
+        return index >= 0 ? labels[2 * index + 1] : labels[2 * (-index - 1)];
+    }
+
+    /**
+     * @return the label for non numeric inputs, or <code>null</code> if there is none
+     */
+    String getNonNumericLabel() {
+        return nonNumericLabel;
+    }
+
+    /**
+     * Formats the result of a transformation.
+     *
+     * @param value the input value
+     * @param label the label of the matching range
+     * @return the formatted result
+     */
+    String format(String value, String label) {
+        if (formatParts.size() == 1) {
+            return formatParts.get(0).apply(value, label);
+        }
+        final StringBuilder result = new StringBuilder();
+        for (BinaryOperator<String> part : formatParts) {
+            result.append(part.apply(value, label));
+        }
+        return result.toString();
+    }
+
+    private boolean containsSegment(Range range, int segment) {
+        if (segment % 2 == 1) {
+            return range.contains(limits[segment / 2]);
+        }
+        // open interval between lower and upper, any of them may be unbounded
+        final BigDecimal lower = segment == 0 ? null : limits[segment / 2 - 1];
+        final BigDecimal upper = segment == labels.length - 1 ? null : limits[segment / 2];
+        final boolean minMatch = range.min == null || (lower != null && range.min.compareTo(lower) <= 0);
+        final boolean maxMatch = range.max == null || (upper != null && range.max.compareTo(upper) >= 0);
+        return minMatch && maxMatch;
+    }
+
+    private static List<BinaryOperator<String>> parseFormat(String format, String valuePlaceholder,
+            String labelPlaceholder) {
+        final List<BinaryOperator<String>> parts = new ArrayList<>();
+        int position = 0;
+        while (position < format.length()) {
+            final int valueIndex = format.indexOf(valuePlaceholder, position);
+            final int labelIndex = format.indexOf(labelPlaceholder, position);
+            final int next;
+            final String placeholder;
+            final BinaryOperator<String> placeholderPart;
+            if (valueIndex >= 0 && (labelIndex < 0 || valueIndex < labelIndex)) {
+                next = valueIndex;
+                placeholder = valuePlaceholder;
+                placeholderPart = (value, label) -> value;
+            } else if (labelIndex >= 0) {
+                next = labelIndex;
+                placeholder = labelPlaceholder;
+                placeholderPart = (value, label) -> label;
+            } else {
+                next = format.length();
+                placeholder = "";
+                placeholderPart = null;
+            }
+            if (next > position) {
+                final String literal = format.substring(position, next);
+                parts.add((value, label) -> literal);
+            }
+            if (placeholderPart != null) {
+                parts.add(placeholderPart);
+            }
+            position = next + placeholder.length();
+        }
+        if (parts.isEmpty()) {
+            parts.add((value, label) -> "");
+        }
+        return parts;
+    }
+
+    private static boolean isPlainNumber(String source) {
+        boolean digit = false;
+        for (int i = 0; i < source.length(); i++) {
+            final char c = source.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+                return false;
+            }
+        }
+        return digit;
+    }
+}
@@ -146,4 +146,16 @@ public class ScaleTransformServiceTest {
         String transformedResponse = processor.transform(existingscale, source);
         Assert.assertEquals("Correcte (992) !", transformedResponse);
     }
+
+    @Test
+    public void testTransformCloseToLimit() throws TransformationException {
+        String existingscale = "scale/limits.scale";
+
+        // the double value of this input equals the limit, so the exact value has to be compared
+        String transformedResponse = processor.transform(existingscale, "9.99999999999999999999");
+        Assert.assertEquals("low", transformedResponse);
+
+        transformedResponse = processor.transform(existingscale, "20.0");
+        Assert.assertEquals("high", transformedResponse);
+    }
 }
@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xpath.internal;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Evaluates simple absolute XPath expressions on a StAX stream, without building a DOM.
+ *
+ * <p>
+ * Only expressions of the forms {@code /a/b/c}, {@code /a/b/c/text()} and {@code /a/b/@attr} are supported, where all
+ * steps are plain element names without namespace prefix, wildcard or predicate. The result equals the string value
+ * of the first matching node in document order, as it would be returned by a full XPath evaluation.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class StreamingXPathEvaluator {
+
+    private static final Pattern SIMPLE_PATH = Pattern
+            .compile("^(/[A-Za-z_][\\w.\\-]*)+(/text\\(\\)|/@[A-Za-z_][\\w.\\-]*)?$");
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final List<String> elements;
+    private final @Nullable String attribute;
+    private final boolean textOnly;
+
+    private StreamingXPathEvaluator(List<String> elements, @Nullable String attribute, boolean textOnly) {
+        this.elements = elements;
+        this.attribute = attribute;
+        this.textOnly = textOnly;
+    }
+
+    /**
+     * Creates an evaluator for the given expression.
+     *
+     * @param xpathExpression the XPath expression
+     * @return the evaluator or <code>null</code> if the expression is not simple enough to be streamed
+     */
+    static @Nullable StreamingXPathEvaluator forExpression(String xpathExpression) {
+        String expression = xpathExpression.trim();
+        if (!SIMPLE_PATH.matcher(expression).matches()) {
+            return null;
+        }
+        String attribute = null;
+        boolean textOnly = false;
+        if (expression.endsWith("/text()")) {
+            textOnly = true;
+            expression = expression.substring(0, expression.length() - "/text()".length());
+        } else {
+            int attributeIndex = expression.lastIndexOf("/@");
+            if (attributeIndex >= 0) {
+                attribute = expression.substring(attributeIndex + 2);
+                expression = expression.substring(0, attributeIndex);
+            }
+        }
+        return new StreamingXPathEvaluator(Arrays.asList(expression.substring(1).split("/")), attribute, textOnly);
+    }
+
+    /**
+     * Evaluates the expression on the given document.
+     *
+     * @param source the XML document
+     * @return the string value of the first matching node, or an empty string if there is none
+     * @throws XMLStreamException if the document is not well-formed
+     */
+    String evaluate(String source) throws XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(source));
+        try {
+            // depth of the current element, and the number of path steps matched by its ancestors-or-self
+            int depth = 0;
+            int matched = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    if (matched == depth - 1 && matched < elements.size() && isStep(reader, elements.get(matched))) {
+                        matched++;
+                        if (matched == elements.size()) {
+                            String result = evaluateMatch(reader);
+                            if (result != null) {
+                                return result;
+                            }
+                            // the element has been consumed completely
+                            depth--;
+                            matched--;
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (matched == depth) {
+                        matched--;
+                    }
+                    depth--;
+                }
+            }
+            return "";
+        } finally {
+            reader.close();
+        }
+    }
+
+    private boolean isStep(XMLStreamReader reader, String name) {
+        String namespace = reader.getNamespaceURI();
+        return name.equals(reader.getLocalName()) && (namespace == null || namespace.isEmpty());
+    }
+
+    /**
+     * Evaluates the current matching element. Returns <code>null</code> if the element does not contribute a result,
+     * in which case the reader is positioned on the element's end tag.
+     */
+    private @Nullable String evaluateMatch(XMLStreamReader reader) throws XMLStreamException {
+        String localAttribute = attribute;
+        if (localAttribute != null) {
+            String value = null;
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                String namespace = reader.getAttributeNamespace(i);
+                if (localAttribute.equals(reader.getAttributeLocalName(i))
+                        && (namespace == null || namespace.isEmpty())) {
+                    value = reader.getAttributeValue(i);
+                    break;
+                }
+            }
+            skipElement(reader);
+            return value;
+        }
+
+        StringBuilder text = new StringBuilder();
+        boolean foundText = false;
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (textOnly && foundText) {
+                        return text.toString();
+                    }
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (!textOnly || depth == 1) {
+                        text.append(reader.getText());
+                        foundText = true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return textOnly && !foundText ? null : text.toString();
+    }
+
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
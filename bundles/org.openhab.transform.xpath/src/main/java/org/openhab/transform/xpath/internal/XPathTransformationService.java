@@ -13,19 +13,25 @@
 package org.openhab.transform.xpath.internal;
 
 import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
@@ -35,14 +41,40 @@ import org.xml.sax.InputSource;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XPath Expressions.
  *
+ * <p>
+ * Neither {@link DocumentBuilder} nor {@link XPathExpression} are thread-safe, so each thread keeps its own builder
+ * and its own cache of compiled expressions. If the <code>streaming</code> configuration parameter is set, simple
+ * absolute paths are evaluated by {@link StreamingXPathEvaluator} without building a DOM.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
-@Component(immediate = true, property = { "smarthome.transform=XPATH" })
+@Component(immediate = true, configurationPid = "org.openhab.transform.xpath", property = {
+        "smarthome.transform=XPATH" })
 public class XPathTransformationService implements TransformationService {
 
+    private static final String CONFIG_STREAMING = "streaming";
+
+    /** maximum number of compiled expressions kept in the cache of each thread */
+    static final int MAX_CACHE_SIZE = 64;
+
     private final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
+    private final ThreadLocal<ThreadContext> threadContext = ThreadLocal.withInitial(ThreadContext::new);
+
+    private volatile boolean streaming = false;
+
+    @Activate
+    protected void activate(@Nullable Map<String, Object> config) {
+        modified(config);
+    }
+
+    @Modified
+    protected void modified(@Nullable Map<String, Object> config) {
+        Object value = config == null ? null : config.get(CONFIG_STREAMING);
+        streaming = value != null && Boolean.parseBoolean(value.toString());
+    }
+
     @Override
     public @Nullable String transform(String xpathExpression, String source) throws TransformationException {
         if (xpathExpression == null || source == null) {
@@ -51,34 +83,98 @@ public class XPathTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
 
-        StringReader stringReader = null;
-
         try {
-            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-            domFactory.setNamespaceAware(true);
-            domFactory.setValidating(false);
-            DocumentBuilder builder = domFactory.newDocumentBuilder();
+            ThreadContext context = threadContext.get();
 
-            stringReader = new StringReader(source);
-            InputSource inputSource = new InputSource(stringReader);
-            inputSource.setEncoding("UTF-8");
+            String transformationResult;
+            StreamingXPathEvaluator evaluator = streaming ? context.getEvaluator(xpathExpression) : null;
+            if (evaluator != null) {
+                transformationResult = evaluator.evaluate(source);
+            } else {
+                XPathExpression expr = context.getExpression(xpathExpression);
 
-            Document doc = builder.parse(inputSource);
+                InputSource inputSource = new InputSource(new StringReader(source));
+                inputSource.setEncoding("UTF-8");
 
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            XPathExpression expr = xpath.compile(xpathExpression);
+                DocumentBuilder builder = context.getBuilder();
+                Document doc;
+                try {
+                    doc = builder.parse(inputSource);
+                } finally {
+                    builder.reset();
+                }
 
-            String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
+                transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
+            }
 
             logger.debug("transformation resulted in '{}'", transformationResult);
 
             return transformationResult;
         } catch (Exception e) {
             throw new TransformationException("transformation throws exceptions", e);
-        } finally {
-            if (stringReader != null) {
-                stringReader.close();
+        }
+    }
+
+    void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Holds the non thread-safe objects used by a single thread.
+     */
+    private static class ThreadContext {
+        private @Nullable DocumentBuilder builder;
+        private final XPath xpath = XPathFactory.newInstance().newXPath();
+        private final Map<String, XPathExpression> expressions = new LinkedHashMap<String, XPathExpression>(16, 0.75f,
+                true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.@Nullable Entry<String, XPathExpression> eldest) {
+                return size() > MAX_CACHE_SIZE;
+            }
+        };
+        private final Map<String, StreamingXPathEvaluator> evaluators = new LinkedHashMap<String, StreamingXPathEvaluator>(
+                16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.@Nullable Entry<String, StreamingXPathEvaluator> eldest) {
+                return size() > MAX_CACHE_SIZE;
+            }
+        };
+
+        DocumentBuilder getBuilder() throws ParserConfigurationException {
+            DocumentBuilder localBuilder = builder;
+            if (localBuilder == null) {
+                DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+                domFactory.setNamespaceAware(true);
+                domFactory.setValidating(false);
+                localBuilder = domFactory.newDocumentBuilder();
+                builder = localBuilder;
+            }
+            return localBuilder;
+        }
+
+        XPathExpression getExpression(String xpathExpression) throws XPathExpressionException {
+            XPathExpression expression = expressions.get(xpathExpression);
+            if (expression == null) {
+                expression = xpath.compile(xpathExpression);
+                expressions.put(xpathExpression, expression);
+            }
+            return expression;
+        }
+
+        @Nullable
+        StreamingXPathEvaluator getEvaluator(String xpathExpression) {
+            StreamingXPathEvaluator evaluator = evaluators.get(xpathExpression);
+            if (evaluator == null) {
+                evaluator = StreamingXPathEvaluator.forExpression(xpathExpression);
+                if (evaluator != null) {
+                    evaluators.put(xpathExpression, evaluator);
+                }
             }
+            return evaluator;
         }
     }
 }
@@ -38,4 +38,21 @@ public class XPathTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("8", transformedResponse);
     }
+
+    @Test
+    public void testTransformByXPathStreaming() throws TransformationException {
+        processor.setStreaming(true);
+
+        // Asserts
+        assertEquals("8", processor.transform("/xml_api_reply/weather/current_conditions/temp_c/@data", source));
+        assertEquals("", processor.transform("/xml_api_reply/weather/unknown", source));
+        assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source));
+    }
+
+    @Test
+    public void testTransformByXPathRepeated() throws TransformationException {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Klar", processor.transform("//forecast_conditions[1]/condition/@data", source));
+        }
+    }
 }
@@ -15,9 +15,14 @@ package org.openhab.transform.xslt.internal;
 import java.io.File;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
@@ -35,14 +40,23 @@ import org.slf4j.LoggerFactory;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XSLT.
  *
+ * <p>
+ * Stylesheets are compiled once into thread-safe {@link Templates}, which are cached until the
+ * {@link XsltTransformationWatcher} detects a change of the file.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
-@Component(immediate = true, property = { "smarthome.transform=XSLT" })
+@Component(immediate = true, service = { TransformationService.class,
+        XsltTransformationService.class }, property = { "smarthome.transform=XSLT" })
 public class XsltTransformationService implements TransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(XsltTransformationService.class);
 
+    private final TransformerFactory transformerFactory = TransformerFactory.newInstance();
+
+    private final Map<String, Templates> templatesCache = new ConcurrentHashMap<>();
+
     /**
      * Transforms the input <code>source</code> by XSLT.
      *
@@ -60,6 +74,50 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
         }
 
+        Templates templates = getTemplates(filename);
+
+        logger.debug("about to transform '{}' by the function '{}'", source, filename);
+
+        StringReader xml = new StringReader(source);
+        StringWriter out = new StringWriter();
+
+        try {
+            templates.newTransformer().transform(new StreamSource(xml), new StreamResult(out));
+        } catch (Exception e) {
+            logger.error("transformation throws exception", e);
+            throw new TransformationException("transformation throws exception", e);
+        }
+
+        logger.debug("transformation resulted in '{}'", out.toString());
+
+        return out.toString();
+    }
+
+    /**
+     * Removes the compiled stylesheets of the given file from the cache.
+     *
+     * @param path the path of the changed or deleted file
+     */
+    public void removeFromCache(Path path) {
+        templatesCache.keySet().removeIf(filename -> path.endsWith(Paths.get(filename)));
+    }
+
+    /**
+     * Returns the compiled stylesheets of the given file, if cached.
+     *
+     * @param filename the name of the file which contains the XSLT transformation rule
+     */
+    @Nullable
+    Templates getCachedTemplates(String filename) {
+        return templatesCache.get(filename);
+    }
+
+    private Templates getTemplates(String filename) throws TransformationException {
+        Templates templates = templatesCache.get(filename);
+        if (templates != null) {
+            return templates;
+        }
+
         Source xsl = null;
 
         try {
@@ -73,23 +131,16 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException(message, e);
         }
 
-        logger.debug("about to transform '{}' by the function '{}'", source, xsl);
-
-        StringReader xml = new StringReader(source);
-        StringWriter out = new StringWriter();
-
-        Transformer transformer;
-
         try {
-            transformer = TransformerFactory.newInstance().newTransformer(xsl);
-            transformer.transform(new StreamSource(xml), new StreamResult(out));
-        } catch (Exception e) {
-            logger.error("transformation throws exception", e);
-            throw new TransformationException("transformation throws exception", e);
+            // the factory itself is not thread-safe
+            synchronized (transformerFactory) {
+                templates = transformerFactory.newTemplates(xsl);
+            }
+        } catch (TransformerConfigurationException e) {
+            logger.error("compiling stylesheet '{}' throws exception", filename, e);
+            throw new TransformationException("compiling stylesheet '" + filename + "' throws exception", e);
         }
-
-        logger.debug("transformation resulted in '{}'", out.toString());
-
-        return out.toString();
+        templatesCache.put(filename, templates);
+        return templates;
     }
 }
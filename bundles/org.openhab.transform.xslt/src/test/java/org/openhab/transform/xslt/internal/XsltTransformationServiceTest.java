@@ -12,7 +12,11 @@
  */
 package org.openhab.transform.xslt.internal;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
+
+import java.nio.file.Paths;
+
+import javax.xml.transform.Templates;
 
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Before;
@@ -38,4 +42,24 @@ public class XsltTransformationServiceTest extends AbstractTransformationService
         // Asserts
         assertEquals("8", transformedResponse);
     }
+
+    @Test
+    public void testTransformByXSLTAfterCacheInvalidation() throws TransformationException {
+        assertEquals("8", processor.transform("http/google_weather.xsl", source));
+        Templates cached = processor.getCachedTemplates("http/google_weather.xsl");
+        assertNotNull(cached);
+
+        // changes of other files keep the cached stylesheet
+        processor.removeFromCache(Paths.get("conf", "transform", "http", "other.xsl"));
+        assertSame(cached, processor.getCachedTemplates("http/google_weather.xsl"));
+
+        processor.removeFromCache(Paths.get("conf", "transform", "http", "google_weather.xsl"));
+        assertNull(processor.getCachedTemplates("http/google_weather.xsl"));
+
+        // Asserts
+        assertEquals("8", processor.transform("http/google_weather.xsl", source));
+        Templates recompiled = processor.getCachedTemplates("http/google_weather.xsl");
+        assertNotNull(recompiled);
+        assertNotSame(cached, recompiled);
+    }
 }
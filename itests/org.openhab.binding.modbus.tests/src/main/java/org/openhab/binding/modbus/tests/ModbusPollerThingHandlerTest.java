@@ -358,6 +358,63 @@ public class ModbusPollerThingHandlerTest extends AbstractModbusOSGiTest {
         verifyNoMoreInteractions(child2);
     }
 
+    @Test
+    public void testUnchangedRegistersNotPassedToChildDataThings()
+            throws IllegalArgumentException, IllegalAccessException, NoSuchFieldException, SecurityException {
+        Configuration pollerConfig = new Configuration();
+        pollerConfig.put("refresh", 150L);
+        pollerConfig.put("start", 5);
+        pollerConfig.put("length", 13);
+        pollerConfig.put("type", "holding");
+        pollerConfig.put("updateUnchangedDataEveryMillis", 60_000L);
+        poller = createPollerThingBuilder("poller").withConfiguration(pollerConfig).withBridge(endpoint.getUID())
+                .build();
+        addThing(poller);
+        verifyEndpointBasicInitInteraction();
+
+        assertThat(poller.getStatus(), is(equalTo(ThingStatus.ONLINE)));
+
+        ArgumentCaptor<PollTask> pollTaskCapturer = ArgumentCaptor.forClass(PollTask.class);
+        verify(mockedModbusManager).registerRegularPoll(pollTaskCapturer.capture(), eq(150l), eq(0L));
+        ModbusReadCallback readCallback = pollTaskCapturer.getValue().getCallback();
+
+        assertNotNull(readCallback);
+
+        ModbusReadRequestBlueprint request = Mockito.mock(ModbusReadRequestBlueprint.class);
+        ModbusRegisterArray registers = Mockito.mock(ModbusRegisterArray.class);
+
+        ModbusPollerThingHandlerImpl thingHandler = (ModbusPollerThingHandlerImpl) poller.getHandler();
+        assertNotNull(thingHandler);
+
+        ModbusDataThingHandler unchangedChild = Mockito.mock(ModbusDataThingHandler.class);
+        ModbusDataThingHandler changedChild = Mockito.mock(ModbusDataThingHandler.class);
+        when(unchangedChild.hasReadDataChanged(any(ModbusRegisterArray.class), any(ModbusRegisterArray.class)))
+                .thenReturn(false);
+        when(changedChild.hasReadDataChanged(any(ModbusRegisterArray.class), any(ModbusRegisterArray.class)))
+                .thenReturn(true);
+        thingHandler.childHandlerInitialized(unchangedChild, Mockito.mock(Thing.class));
+        thingHandler.childHandlerInitialized(changedChild, Mockito.mock(Thing.class));
+
+        // first data is passed to all children
+        readCallback.onRegisters(request, registers);
+        verify(unchangedChild).onRegisters(request, registers);
+        verify(changedChild).onRegisters(request, registers);
+
+        // only children with changed data are updated
+        readCallback.onRegisters(request, registers);
+        verify(unchangedChild, times(1)).onRegisters(request, registers);
+        verify(changedChild, times(2)).onRegisters(request, registers);
+
+        // errors are passed to all children, and data following the error as well
+        Exception error = new Exception("fail");
+        readCallback.onError(request, error);
+        verify(unchangedChild).onError(request, error);
+        verify(changedChild).onError(request, error);
+        readCallback.onRegisters(request, registers);
+        verify(unchangedChild, times(2)).onRegisters(request, registers);
+        verify(changedChild, times(3)).onRegisters(request, registers);
+    }
+
     @Test
     public void testBitsPassedToChildDataThings()
             throws IllegalArgumentException, IllegalAccessException, NoSuchFieldException, SecurityException {
@@ -97,4 +97,32 @@ public class DiscoverComponentsTest extends JavaOSGiTest {
         discover.startDiscovery(connection, 50, discoveryIds, discovered).get(100, TimeUnit.MILLISECONDS);
 
     }
+
+    @Test
+    public void unchangedConfigIsNotParsedAgain() {
+        ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1);
+
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new ChannelConfigurationTypeAdapterFactory()).create();
+
+        DiscoverComponents discover = new DiscoverComponents(ThingChannelConstants.testHomeAssistantThing, scheduler,
+                channelStateUpdateListener, availabilityTracker, gson, transformationServiceProvider);
+
+        HandlerConfiguration config = new HandlerConfiguration("homeassistant",
+                Collections.singletonList("switch/object"));
+        Set<HaID> discoveryIds = new HashSet<>(HaID.fromConfig(config));
+        discover.startDiscovery(connection, 0, discoveryIds, discovered);
+
+        final String topic = "homeassistant/switch/object/config";
+        final String payload = "{'name':'testname','state_topic':'homeassistant/switch/object/state',"
+                + "'command_topic':'homeassistant/switch/object/set'}";
+        discover.processMessage(topic, payload.getBytes());
+        discover.processMessage(topic, payload.getBytes());
+        verify(discovered, times(1)).componentDiscovered(any(), any());
+
+        // A changed configuration is parsed again
+        discover.processMessage(topic, payload.replace("testname", "othername").getBytes());
+        verify(discovered, times(2)).componentDiscovered(any(), any());
+
+        scheduler.shutdownNow();
+    }
 }